@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+/**
+ * Form binding of a pet: {@link PetTypeFormatter#parse} against a registry with a
+ * growing number of pet types and {@link PetValidator#validate} for a valid and an
+ * invalid pet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetFormBenchmark {
+
+	@Param({ "6", "100" })
+	int typeCount;
+
+	private PetTypeFormatter formatter;
+
+	private final PetValidator validator = new PetValidator();
+
+	private String lastType;
+
+	private Pet validPet;
+
+	private Pet invalidPet;
+
+	@Setup
+	public void setup() {
+		List<PetType> types = new ArrayList<>();
+		for (int i = 1; i <= this.typeCount; i++) {
+			PetType type = new PetType();
+			type.setId(i);
+			type.setName("type" + i);
+			types.add(type);
+		}
+		OwnerRepository owners = mock(OwnerRepository.class);
+		given(owners.findPetTypes()).willReturn(types);
+		this.formatter = new PetTypeFormatter(new PetTypeRegistry(owners));
+		this.lastType = "type" + this.typeCount;
+
+		this.validPet = new Pet();
+		this.validPet.setName("Leo");
+		this.validPet.setType(types.get(0));
+		this.validPet.setBirthDate(LocalDate.of(2020, 1, 1));
+		this.invalidPet = new Pet();
+	}
+
+	@Benchmark
+	public PetType parseKnownType() throws ParseException {
+		return this.formatter.parse(this.lastType, Locale.ENGLISH);
+	}
+
+	@Benchmark
+	public Object parseUnknownType() {
+		try {
+			return this.formatter.parse("unknown", Locale.ENGLISH);
+		}
+		catch (ParseException ex) {
+			return ex;
+		}
+	}
+
+	@Benchmark
+	public Errors validateValidPet() {
+		Errors errors = new BeanPropertyBindingResult(this.validPet, "pet");
+		this.validator.validate(this.validPet, errors);
+		return errors;
+	}
+
+	@Benchmark
+	public Errors validateInvalidPet() {
+		Errors errors = new BeanPropertyBindingResult(this.invalidPet, "pet");
+		this.validator.validate(this.invalidPet, errors);
+		return errors;
+	}
+
+}
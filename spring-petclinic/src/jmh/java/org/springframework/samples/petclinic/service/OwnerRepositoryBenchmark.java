@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.model.PersonKeyset;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerDataGenerator;
+import org.springframework.samples.petclinic.owner.OwnerListRow;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+
+/**
+ * The owner queries behind the find-owners, owner-details and pet pages against the
+ * embedded H2 database, seeded by {@link OwnerDataGenerator} with {@code owners} additional
+ * owners with two pets and two visits per pet.
+ * Use e.g. {@code -Djmh.args="OwnerRepositoryBenchmark -p owners=1000000"} for a larger
+ * dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerRepositoryBenchmark {
+
+	@Param({ "10000" })
+	int owners;
+
+	private ConfigurableApplicationContext context;
+
+	private OwnerRepository repository;
+
+	private int middleId;
+
+	@Setup(Level.Trial)
+	public void start() {
+		this.context = new SpringApplicationBuilder(PetClinicApplication.class).web(WebApplicationType.NONE)
+			.logStartupInfo(false)
+			.properties("spring.docker.compose.enabled=false", "logging.level.root=warn")
+			.run();
+		this.repository = this.context.getBean(OwnerRepository.class);
+		OwnerDataGenerator generator = this.context.getBean(OwnerDataGenerator.class);
+		int firstId = generator.generate(OwnerDataGenerator.Volume.of(this.owners, 2, 2)).firstOwnerId();
+		this.middleId = firstId + this.owners / 2;
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public long findByLastName() {
+		return this.repository.findByLastName("Davis", PageRequest.of(0, 5)).getTotalElements();
+	}
+
+	@Benchmark
+	public int findListRowsWithPetNames() {
+		List<OwnerListRow> rows = this.repository.findListRowsByLastName("Davis", PageRequest.of(0, 5)).getContent();
+		return this.repository.findPetNamesByOwnerIds(rows.stream().map(OwnerListRow::getId).toList()).size();
+	}
+
+	@Benchmark
+	public Window<Owner> scrollByKeyset() {
+		return this.repository.findByLastNameStartingWith("Davis", PersonKeyset.position(null), PersonKeyset.SORT,
+				Limit.of(5));
+	}
+
+	@Benchmark
+	public Owner findById() {
+		return this.repository.findById(this.middleId);
+	}
+
+}
@@ -18,8 +18,9 @@ public class BaseEntity implements Serializable {
 	// Markiert das Feld 'id' als Primärschlüssel in der Datenbank
 	@Id
 	// Gibt an, dass der Wert von 'id' automatisch generiert werden soll
-	// GenerationType.IDENTITY lässt die Datenbank die ID generieren, z.B. durch Auto-Inkrement
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	// GenerationType.SEQUENCE holt IDs blockweise (50 pro Abruf) aus der Sequenz <tabelle>_seq, unter MySQL aus einer
+	// gleichnamigen Tabelle; anders als bei IDENTITY kennt Hibernate die ID vor dem INSERT und kann Inserts bündeln
+	@GeneratedValue(strategy = GenerationType.SEQUENCE)
 	private Integer id;
 
 	// Getter-Methode für das Feld 'id'
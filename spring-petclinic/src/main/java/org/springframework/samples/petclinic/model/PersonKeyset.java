@@ -0,0 +1,80 @@
+// Paketdeklaration: Definiert den Namespace der Klasse innerhalb des Projekts
+package org.springframework.samples.petclinic.model;
+
+// Importiert benötigte Klassen
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition; // Cursor-Position aus Schlüsselwerten
+import org.springframework.data.domain.ScrollPosition; // Allgemeine Scroll-Position von Spring Data
+import org.springframework.data.domain.Sort; // Sortierung der Abfrage
+import org.springframework.data.domain.Window; // Ergebnisfenster einer Keyset-Abfrage
+import org.springframework.util.StringUtils;
+
+// Hilfsklasse für die Keyset-(Seek-)Paginierung über Personen (Besitzer und Tierärzte)
+// Der Schlüssel ist das Paar (last_name, id); daraus werden undurchsichtige Tokens für "Vor" und "Zurück" erzeugt,
+// damit tiefe Seiten ohne OFFSET und ohne count(*) gelesen werden können
+public final class PersonKeyset {
+
+	// Sortierung, auf der der Keyset basiert; die ID macht sie eindeutig
+	public static final Sort SORT = Sort.by("lastName", "id");
+
+	// Trennzeichen im Token zwischen Richtung, ID und Nachname
+	private static final String SEPARATOR = ":";
+
+	// Richtungskennzeichen im Token
+	private static final String FORWARD = "f";
+
+	private static final String BACKWARD = "b";
+
+	private PersonKeyset() {
+	}
+
+	// Wandelt ein Token in eine Scroll-Position um; ohne oder mit ungültigem Token wird am Anfang begonnen
+	public static KeysetScrollPosition position(String token) {
+		if (!StringUtils.hasText(token)) {
+			return ScrollPosition.keyset();
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			// Der Nachname steht am Ende, damit er selbst Trennzeichen enthalten darf
+			String[] parts = decoded.split(SEPARATOR, 3);
+			Map<String, Object> keys = new LinkedHashMap<>();
+			keys.put("lastName", parts[2]);
+			keys.put("id", Integer.valueOf(parts[1]));
+			return BACKWARD.equals(parts[0]) ? ScrollPosition.backward(keys) : ScrollPosition.forward(keys);
+		}
+		catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+			return ScrollPosition.keyset();
+		}
+	}
+
+	// Liefert das Token für die nächste Seite oder null, wenn es keine gibt
+	public static String nextToken(Window<? extends Person> window, KeysetScrollPosition current) {
+		if (window.isEmpty()) {
+			return null;
+		}
+		// Rückwärts gelesen gibt es immer eine nächste Seite, da wir von dort kommen
+		boolean hasNext = current.scrollsBackward() || window.hasNext();
+		return hasNext ? token(FORWARD, window.getContent().get(window.size() - 1)) : null;
+	}
+
+	// Liefert das Token für die vorherige Seite oder null, wenn wir am Anfang stehen
+	public static String previousToken(Window<? extends Person> window, KeysetScrollPosition current) {
+		if (window.isEmpty()) {
+			return null;
+		}
+		// Vorwärts gelesen gibt es genau dann eine vorherige Seite, wenn nicht vom Anfang gestartet wurde
+		boolean hasPrevious = current.scrollsBackward() ? window.hasNext() : !current.isInitial();
+		return hasPrevious ? token(BACKWARD, window.getContent().get(0)) : null;
+	}
+
+	// Kodiert Richtung und Schlüssel einer Person als URL-sicheres Base64-Token
+	private static String token(String direction, Person person) {
+		String raw = direction + SEPARATOR + person.getId() + SEPARATOR + person.getLastName();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,187 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+// Liest Besitzer aus CSV mit Kopfzeile und den Spalten
+// firstName,lastName,address,city,telephone,petName,petBirthDate,petType,visitDate,visitDescription
+// Aufeinanderfolgende Zeilen mit gleichen Besitzerdaten gehören zu einem Besitzer, darin aufeinanderfolgende
+// Zeilen mit gleichem petName zu einem Haustier; Haustier- und Besuchsspalten dürfen leer sein
+// Eine Zeile, die Jackson nicht lesen kann (z.B. mehr Spalten als die Kopfzeile), beendet den laufenden Besitzer und
+// wird danach für sich als InvalidRecordException gemeldet
+class CsvOwnerImportReader implements OwnerImportReader {
+
+	// Spalten in der Reihenfolge der Kopfzeile, auch für den CSV-Export
+	static final String[] COLUMNS = { "firstName", "lastName", "address", "city", "telephone", "petName",
+			"petBirthDate", "petType", "visitDate", "visitDescription" };
+
+	private final MappingIterator<Map<String, String>> rows;
+
+	// Bereits gelesene erste Zeile des nächsten Besitzers
+	private Map<String, String> pending;
+
+	// Nummer der zuletzt gelesenen Zeile; die Kopfzeile ist Zeile 1
+	private long rowLine = 1;
+
+	private long pendingLine;
+
+	// Zeile, an der der zuletzt gelesene Besitzer beginnt
+	private long line;
+
+	// Zuletzt gelesene, nicht lesbare Zeile, die nach dem laufenden Besitzer gemeldet wird
+	private InvalidRecordException malformed;
+
+	CsvOwnerImportReader(Reader reader) throws IOException {
+		this.rows = new CsvMapper().readerForMapOf(String.class)
+			.with(CsvSchema.emptySchema().withHeader())
+			.readValues(reader);
+	}
+
+	@Override
+	public OwnerImportRecord next() throws IOException {
+		Map<String, String> first = this.pending != null ? this.pending : readRow();
+		if (first == null) {
+			if (this.malformed != null) {
+				InvalidRecordException malformed = this.malformed;
+				this.malformed = null;
+				this.line = malformed.getLine();
+				throw malformed;
+			}
+			return null;
+		}
+		this.line = this.pending != null ? this.pendingLine : this.rowLine;
+		this.pending = null;
+
+		// Sammelt alle Zeilen dieses Besitzers; Fehler werden gemerkt, damit die Gruppe vollständig übersprungen wird
+		List<String> errors = new ArrayList<>();
+		List<PetBuilder> pets = new ArrayList<>();
+		addRow(first, pets, errors);
+		Map<String, String> row;
+		while ((row = readRow()) != null && sameOwner(first, row)) {
+			addRow(row, pets, errors);
+		}
+		if (row != null) {
+			this.pending = row;
+			this.pendingLine = this.rowLine;
+		}
+		if (!errors.isEmpty()) {
+			throw new InvalidRecordException(this.line, String.join(", ", errors));
+		}
+		return new OwnerImportRecord(value(first, "firstName"), value(first, "lastName"), value(first, "address"),
+				value(first, "city"), value(first, "telephone"), pets.stream().map(PetBuilder::build).toList());
+	}
+
+	@Override
+	public long line() {
+		return this.line;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.rows.close();
+	}
+
+	// Liefert null am Ende der Eingabe und nach einer nicht lesbaren Zeile, bis diese gemeldet ist
+	private Map<String, String> readRow() throws IOException {
+		if (this.malformed != null || !this.rows.hasNextValue()) {
+			return null;
+		}
+		this.rowLine++;
+		try {
+			return this.rows.nextValue();
+		}
+		catch (JsonProcessingException ex) {
+			// Der MappingIterator setzt beim nächsten hasNextValue hinter der fehlerhaften Zeile wieder auf
+			this.malformed = new InvalidRecordException(this.rowLine, ex.getOriginalMessage());
+			return null;
+		}
+	}
+
+	// Übernimmt Haustier und Besuch einer Zeile
+	private void addRow(Map<String, String> row, List<PetBuilder> pets, List<String> errors) {
+		String petName = value(row, "petName");
+		if (petName != null) {
+			PetBuilder current = pets.isEmpty() ? null : pets.get(pets.size() - 1);
+			if (current == null || !petName.equals(current.name)) {
+				pets.add(new PetBuilder(petName, date(row, "petBirthDate", errors), value(row, "petType")));
+			}
+		}
+		String description = value(row, "visitDescription");
+		LocalDate visitDate = date(row, "visitDate", errors);
+		if (description != null || visitDate != null) {
+			if (pets.isEmpty()) {
+				errors.add("visit without pet");
+			}
+			else {
+				pets.get(pets.size() - 1).visits.add(new OwnerImportRecord.VisitRecord(visitDate, description));
+			}
+		}
+	}
+
+	// Besitzer gelten als gleich, wenn alle Besitzerspalten übereinstimmen
+	private static boolean sameOwner(Map<String, String> a, Map<String, String> b) {
+		for (String column : new String[] { "firstName", "lastName", "address", "city", "telephone" }) {
+			if (!Objects.equals(value(a, column), value(b, column))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String value(Map<String, String> row, String column) {
+		String value = row.get(column);
+		return StringUtils.hasText(value) ? value.trim() : null;
+	}
+
+	private static LocalDate date(Map<String, String> row, String column, List<String> errors) {
+		String value = value(row, column);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(value);
+		}
+		catch (DateTimeParseException ex) {
+			errors.add(column + ": invalid date '" + value + "'");
+			return null;
+		}
+	}
+
+	// Sammelt die Besuche eines Haustiers über mehrere Zeilen
+	private static final class PetBuilder {
+
+		private final String name;
+
+		private final LocalDate birthDate;
+
+		private final String type;
+
+		private final List<OwnerImportRecord.VisitRecord> visits = new ArrayList<>();
+
+		private PetBuilder(String name, LocalDate birthDate, String type) {
+			this.name = name;
+			this.birthDate = birthDate;
+			this.type = type;
+		}
+
+		private OwnerImportRecord.PetRecord build() {
+			return new OwnerImportRecord.PetRecord(this.name, this.birthDate, this.type, this.visits);
+		}
+
+	}
+
+}
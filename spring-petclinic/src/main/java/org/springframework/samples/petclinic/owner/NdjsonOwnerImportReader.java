@@ -0,0 +1,56 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Liest Besitzer im NDJSON-Format: ein JSON-Objekt pro Zeile, leere Zeilen werden übersprungen
+// Jede Zeile wird für sich geparst, ein Fehler betrifft daher nur diese Zeile
+class NdjsonOwnerImportReader implements OwnerImportReader {
+
+	private final BufferedReader reader;
+
+	private final ObjectMapper objectMapper;
+
+	// Aktuelle Zeilennummer (1-basiert)
+	private long line;
+
+	NdjsonOwnerImportReader(Reader reader, ObjectMapper objectMapper) {
+		this.reader = new BufferedReader(reader);
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public OwnerImportRecord next() throws IOException {
+		String json;
+		do {
+			json = this.reader.readLine();
+			if (json == null) {
+				return null;
+			}
+			this.line++;
+		}
+		while (json.isBlank());
+		try {
+			return this.objectMapper.readValue(json, OwnerImportRecord.class);
+		}
+		catch (JsonProcessingException ex) {
+			throw new InvalidRecordException(this.line, ex.getOriginalMessage());
+		}
+	}
+
+	@Override
+	public long line() {
+		return this.line;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.reader.close();
+	}
+
+}
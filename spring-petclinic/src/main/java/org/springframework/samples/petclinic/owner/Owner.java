@@ -13,8 +13,12 @@ import org.springframework.util.Assert; // Für Vorbedingungen und Validierung
 import jakarta.persistence.CascadeType; // Gibt den Typ des Kaskadierens an
 import jakarta.persistence.Column; // Verknüpft ein Feld mit einer Datenbankspalte
 import jakarta.persistence.Entity; // Markiert die Klasse als JPA-Entität
+import jakarta.persistence.EntityListeners; // Registriert Callbacks für Persistenz-Ereignisse
 import jakarta.persistence.FetchType; // Gibt an, wie Daten abgerufen werden (eager/lazy)
 import jakarta.persistence.JoinColumn; // Definiert die Spalte für die Verbindung zwischen Tabellen
+import jakarta.persistence.NamedAttributeNode; // Attribut, das ein Fetch-Plan mitlädt
+import jakarta.persistence.NamedEntityGraph; // Benannter Fetch-Plan (Entity Graph)
+import jakarta.persistence.NamedSubgraph; // Verschachtelter Teil eines Fetch-Plans
 import jakarta.persistence.OneToMany; // Beziehungsannotation für One-to-Many
 import jakarta.persistence.OrderBy; // Gibt die Sortierreihenfolge der Ergebnisse an
 import jakarta.persistence.Table; // Gibt den Tabellennamen in der Datenbank an
@@ -24,8 +28,18 @@ import jakarta.validation.constraints.NotBlank; // Validierung für nicht leere
 	// Die Klasse wird als JPA-Entität markiert und der zugehörige Tabellenname wird angegeben
 	@Entity
 	@Table(name = "owners")
+	// Hält den optionalen Nachnamen-Index nach dem Speichern eines Besitzers aktuell
+	@EntityListeners(OwnerLastNameIndexListener.class)
+	// Fetch-Plan für Detailseite und Formulare: lädt die Haustiere samt Typ in einer Abfrage
+	// Die Besuche werden bewusst nicht mitgejoint, da die Haustier-Liste sonst pro Besuch doppelt befüllt würde
+	@NamedEntityGraph(name = Owner.PETS_GRAPH,
+		attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"),
+		subgraphs = @NamedSubgraph(name = "pet", attributeNodes = @NamedAttributeNode("type")))
 	public class Owner extends Person {
 
+	// Name des Fetch-Plans, der die Haustiere (ohne Besuche) lädt
+	public static final String PETS_GRAPH = "Owner.pets";
+
 	// Verknüpft das Feld 'address' mit der Spalte 'address' in der Datenbank
 	@Column(name = "address")
 	// Validierungsannotation, die sicherstellt, dass 'address' nicht null oder leer ist
@@ -50,10 +64,12 @@ import jakarta.validation.constraints.NotBlank; // Validierung für nicht leere
   // Ein Owner kann mehrere Pets haben
 	@OneToMany(
 		cascade = CascadeType.ALL, // Alle Änderungen an Owner werden auf Pets kaskadiert
-		fetch = FetchType.EAGER // Pets werden sofort mitgeladen (eager loading)
+		fetch = FetchType.LAZY // Pets werden nur über einen Fetch-Plan oder bei Zugriff geladen
 	)
 	// Definiert die Verknüpfungsspalte in der Pet-Tabelle, die auf den Owner verweist
-	@JoinColumn(name = "owner_id")
+	// nullable/updatable = false: owner_id wird direkt im INSERT des Haustiers gesetzt statt per UPDATE danach,
+	// damit neue Haustiere in einem Batch geschrieben werden
+	@JoinColumn(name = "owner_id", nullable = false, updatable = false)
 	// Gibt an, dass die Pets nach dem Feld 'name' sortiert werden sollen
 	@OrderBy("name")
 	private List<Pet> pets = new ArrayList<>();
@@ -107,6 +123,8 @@ import jakarta.validation.constraints.NotBlank; // Validierung für nicht leere
 	}
 
 	// Gibt das Pet mit der gegebenen ID zurück, oder null, wenn keines gefunden wurde.
+	// Bewusst eine lineare Suche: ein Besitzer hat nur wenige Haustiere, und ein Index müsste Umbenennungen,
+	// beim Speichern vergebene IDs und Änderungen an der Liste vorbei verfolgen
 	public Pet getPet(Integer id) {
 		for (Pet pet : getPets()) {
 			if (!pet.isNew()) {
@@ -120,6 +138,7 @@ import jakarta.validation.constraints.NotBlank; // Validierung für nicht leere
 	}
 
 	// Gibt das Pet mit dem gegebenen Namen zurück, oder null, wenn keines gefunden wurde.
+	// Groß-/Kleinschreibung wird ignoriert; mit ignoreNew zählen nur bereits gespeicherte Haustiere
 	public Pet getPet(String name, boolean ignoreNew) {
 		name = name.toLowerCase();
 		for (Pet pet : getPets()) {
@@ -0,0 +1,277 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.system.ApiExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Validator;
+
+// JSON-API für Besitzer, Haustiere und Besuche (z.B. für die Mobil-App) über dieselben Repositories wie die HTML-Seiten
+// Jede Methode gibt ein CompletableFuture zurück: der Servlet-Thread ist sofort wieder frei, die JDBC-Arbeit läuft im
+// begrenzten ApiExecutor; sind dessen Threads und Warteschlange belegt, antwortet die API mit 429 und Retry-After
+@RestController
+@RequestMapping("/api/owners")
+class OwnerApiController {
+
+	// Größte Seitengröße der Besitzersuche
+	private static final int MAX_PAGE_SIZE = 100;
+
+	private final OwnerRepository owners;
+
+	private final PetRepository pets;
+
+	private final VisitRepository visits;
+
+	// Zwischengespeichertes Verzeichnis der Haustierarten (Namen im JSON statt IDs)
+	private final PetTypeRegistry types;
+
+	// Der Cache ist optional (petclinic.cache.owners.enabled)
+	private final ObjectProvider<OwnerCache> cache;
+
+	// Für das Lesen der Lesesicht vom Primärsystem (siehe OwnerLoader)
+	private final PlatformTransactionManager transactionManager;
+
+	private final ApiExecutor executor;
+
+	// Prüft die Bean-Validation-Annotationen von Owner und Visit wie @Valid in den Formularen
+	private final SpringValidatorAdapter validator;
+
+	OwnerApiController(OwnerRepository owners, PetRepository pets, VisitRepository visits, PetTypeRegistry types,
+			ObjectProvider<OwnerCache> cache, PlatformTransactionManager transactionManager, ApiExecutor executor,
+			Validator validator) {
+		this.owners = owners;
+		this.pets = pets;
+		this.visits = visits;
+		this.types = types;
+		this.cache = cache;
+		this.transactionManager = transactionManager;
+		this.executor = executor;
+		this.validator = new SpringValidatorAdapter(validator);
+	}
+
+	// GET /api/owners?lastName=Da&page=1&size=20: Besitzer nach Nachnamen-Präfix, mit den Namen ihrer Haustiere
+	@GetMapping
+	public CompletableFuture<OwnerPage> findOwners(@RequestParam(defaultValue = "") String lastName,
+			@RequestParam(defaultValue = "1") int page, @RequestParam(defaultValue = "20") int size) {
+		PageRequest pageable = PageRequest.of(Math.max(page, 1) - 1, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+		return async(() -> {
+			Page<OwnerListRow> rows = this.owners.findListRowsByLastName(lastName, pageable);
+			return new OwnerPage(OwnerListRow.withPetNames(rows.getContent(), this.owners), pageable.getPageNumber() + 1,
+					rows.getTotalPages(), rows.getTotalElements());
+		});
+	}
+
+	// GET /api/owners/{ownerId}: Besitzer mit Haustieren und Besuchen, dieselbe Lesesicht wie die Detailseite
+	@GetMapping("/{ownerId}")
+	public CompletableFuture<ResponseEntity<OwnerDetails>> showOwner(@PathVariable("ownerId") int ownerId) {
+		return async(() -> {
+			OwnerDetails details = OwnerLoader.forReading(this.owners, this.cache, this.transactionManager).loadDetails(ownerId);
+			return details != null ? ResponseEntity.ok(details) : ResponseEntity.notFound().build();
+		});
+	}
+
+	// POST /api/owners: legt einen Besitzer an
+	@PostMapping
+	public CompletableFuture<ResponseEntity<?>> createOwner(@RequestBody OwnerResource resource) {
+		return async(() -> {
+			Owner owner = new Owner();
+			owner.setFirstName(resource.firstName());
+			owner.setLastName(resource.lastName());
+			owner.setAddress(resource.address());
+			owner.setCity(resource.city());
+			owner.setTelephone(resource.telephone());
+			Errors errors = new BeanPropertyBindingResult(owner, "owner");
+			this.validator.validate(owner, errors);
+			if (errors.hasErrors()) {
+				return invalid(errors);
+			}
+			this.owners.save(owner);
+			return ResponseEntity.created(URI.create("/api/owners/" + owner.getId())).body(OwnerResource.of(owner));
+		});
+	}
+
+	// POST /api/owners/{ownerId}/pets: fügt ein Haustier als einzelne Zeile ein, ohne das Aggregat zu laden
+	@PostMapping("/{ownerId}/pets")
+	public CompletableFuture<ResponseEntity<?>> addPet(@PathVariable("ownerId") int ownerId,
+			@RequestBody PetResource resource) {
+		return async(() -> {
+			Pet pet = new Pet();
+			Errors errors = bind(ownerId, resource, pet);
+			if (errors.hasErrors()) {
+				return invalid(errors);
+			}
+			try {
+				if (!this.pets.add(ownerId, pet)) {
+					return ResponseEntity.notFound().build();
+				}
+			}
+			catch (DataIntegrityViolationException ex) {
+				// Ein gleichzeitig gespeichertes Haustier hat denselben Namen bekommen (Index pets_owner_name)
+				return duplicate(errors);
+			}
+			return ResponseEntity.created(URI.create("/api/owners/" + ownerId)).body(PetResource.of(pet));
+		});
+	}
+
+	// PUT /api/owners/{ownerId}/pets/{petId}: ändert Name, Geburtsdatum und (optional) Art eines Haustiers
+	@PutMapping("/{ownerId}/pets/{petId}")
+	public CompletableFuture<ResponseEntity<?>> updatePet(@PathVariable("ownerId") int ownerId,
+			@PathVariable("petId") int petId, @RequestBody PetResource resource) {
+		return async(() -> {
+			Pet pet = new Pet();
+			pet.setId(petId);
+			Errors errors = bind(ownerId, resource, pet);
+			if (errors.hasErrors()) {
+				return invalid(errors);
+			}
+			try {
+				if (!this.pets.update(ownerId, pet)) {
+					return ResponseEntity.notFound().build();
+				}
+			}
+			catch (DataIntegrityViolationException ex) {
+				return duplicate(errors);
+			}
+			return ResponseEntity.ok(PetResource.of(pet));
+		});
+	}
+
+	// POST /api/owners/{ownerId}/pets/{petId}/visits: bucht einen Besuch als einzelne Zeile (siehe VisitBooking)
+	@PostMapping("/{ownerId}/pets/{petId}/visits")
+	public CompletableFuture<ResponseEntity<?>> bookVisit(@PathVariable("ownerId") int ownerId,
+			@PathVariable("petId") int petId, @RequestBody VisitResource resource) {
+		return async(() -> {
+			Visit visit = new Visit();
+			if (resource.date() != null) {
+				visit.setDate(resource.date());
+			}
+			visit.setDescription(resource.description());
+			Errors errors = new BeanPropertyBindingResult(visit, "visit");
+			this.validator.validate(visit, errors);
+			if (errors.hasErrors()) {
+				return invalid(errors);
+			}
+			if (!this.visits.book(ownerId, petId, visit)) {
+				return ResponseEntity.notFound().build();
+			}
+			return ResponseEntity.created(URI.create("/api/owners/" + ownerId)).body(VisitResource.of(visit));
+		});
+	}
+
+	// Executor ausgelastet: der Client soll es nach Retry-After erneut versuchen
+	@ExceptionHandler(TaskRejectedException.class)
+	ResponseEntity<ProblemDetail> saturated() {
+		ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS,
+				"Too many concurrent API requests");
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+			.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(this.executor.getRetryAfter().toSeconds(), 1)))
+			.body(problem);
+	}
+
+	private <T> CompletableFuture<T> async(Supplier<T> work) {
+		return this.executor.submit(work);
+	}
+
+	// Überträgt die Felder auf das Haustier und prüft sie wie das Formular im PetController
+	private Errors bind(int ownerId, PetResource resource, Pet pet) {
+		pet.setName(resource.name());
+		pet.setBirthDate(resource.birthDate());
+		Errors errors = new BeanPropertyBindingResult(pet, "pet");
+		if (resource.type() != null) {
+			pet.setType(this.types.findByName(resource.type()));
+			if (pet.getType() == null) {
+				errors.rejectValue("type", "typeMismatch", "unknown type");
+			}
+		}
+		new PetValidator().validate(pet, errors);
+		if (pet.getBirthDate() != null && pet.getBirthDate().isAfter(LocalDate.now())) {
+			errors.rejectValue("birthDate", "typeMismatch.birthDate");
+		}
+		if (StringUtils.hasText(pet.getName()) && this.pets.existsByOwnerAndName(ownerId, pet.getName(), pet.getId())) {
+			errors.rejectValue("name", "duplicate", "already exists");
+		}
+		return errors;
+	}
+
+	private static ResponseEntity<?> duplicate(Errors errors) {
+		errors.rejectValue("name", "duplicate", "already exists");
+		return invalid(errors);
+	}
+
+	// 400 mit den Fehlercodes je Feld, z.B. {"errors": {"name": "duplicate"}}
+	private static ResponseEntity<?> invalid(Errors errors) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		for (FieldError error : errors.getFieldErrors()) {
+			fields.putIfAbsent(error.getField(), error.getCode());
+		}
+		ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation failed");
+		problem.setProperty("errors", fields);
+		return ResponseEntity.badRequest().body(problem);
+	}
+
+	// Eine Seite der Besitzersuche
+	record OwnerPage(List<OwnerListRow> owners, int page, int totalPages, long totalItems) {
+	}
+
+	// Besitzer ohne Haustiere, zum Anlegen und als Antwort darauf
+	record OwnerResource(Integer id, String firstName, String lastName, String address, String city,
+			String telephone) {
+
+		static OwnerResource of(Owner owner) {
+			return new OwnerResource(owner.getId(), owner.getFirstName(), owner.getLastName(), owner.getAddress(),
+					owner.getCity(), owner.getTelephone());
+		}
+
+	}
+
+	// Haustier mit dem Namen seiner Art; die ID wird beim Schreiben ignoriert
+	record PetResource(Integer id, String name, LocalDate birthDate, String type) {
+
+		static PetResource of(Pet pet) {
+			return new PetResource(pet.getId(), pet.getName(), pet.getBirthDate(),
+					pet.getType() != null ? pet.getType().getName() : null);
+		}
+
+	}
+
+	// Besuch; ohne Datum gilt der heutige Tag
+	record VisitResource(Integer id, LocalDate date, String description) {
+
+		static VisitResource of(Visit visit) {
+			return new VisitResource(visit.getId(), visit.getDate(), visit.getDescription());
+		}
+
+	}
+
+}
@@ -0,0 +1,172 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.samples.petclinic.system.CacheInvalidationBus;
+import org.springframework.samples.petclinic.system.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+// Cache der Owner-Aggregate (Besitzer mit Haustieren, Typen und Besuchen) für lesende Seiten, Schlüssel ist die Besitzer-ID
+// Im Cache liegt je Besitzer eine losgelöste Kopie, einmal beim Eintragen erstellt, samt ihrer unveränderlichen Lesesicht
+// (OwnerDetails): Detailseite und API bekommen die Lesesicht ohne jede Kopie, Formulare eine eigene Kopie des Aggregats,
+// damit Datenbindung den gecachten Stand nie verändert; Lazy Loads außerhalb einer Session gibt es so nicht
+// Größe und Lebensdauer stehen in petclinic.cache.owners.*, Treffer, Ladezeit und Verdrängungen unter /actuator/metrics/cache.*
+@Component
+@ConditionalOnProperty(name = "petclinic.cache.owners.enabled", havingValue = "true", matchIfMissing = true)
+class OwnerCache {
+
+	private final Cache<Object, Object> cache;
+
+	private final OwnerRepository owners;
+
+	private final TransactionTemplate transactions;
+
+	// Zählt jede Invalidierung; ein Laden, während dessen invalidiert wurde, landet nicht im Cache
+	private final AtomicLong invalidations = new AtomicLong();
+
+	// Verteilt Invalidierungen an die anderen Instanzen; optional (petclinic.cache.invalidation.bus)
+	private final ObjectProvider<CacheInvalidationBus> bus;
+
+	OwnerCache(CacheManager cacheManager, OwnerRepository owners, PlatformTransactionManager transactionManager,
+			ObjectProvider<CacheInvalidationBus> bus) {
+		this.cache = nativeCache(cacheManager);
+		this.owners = owners;
+		this.bus = bus;
+		// Bewusst nicht schreibgeschützt: schreibgeschützte Transaktionen lesen vom Replikat (siehe
+		// ReplicaDataSourceConfiguration), dessen Rückstand sonst bis zum Ablauf im Cache bliebe
+		this.transactions = new TransactionTemplate(transactionManager);
+	}
+
+	// Liefert eine eigene Kopie des Besitzers, z.B. für Formulare; null, wenn es ihn nicht gibt ("nicht gefunden" wird
+	// nicht gecacht). Beim Fehlschlag bekommt der Aufrufer das gelesene, losgelöste Aggregat selbst, der Cache eine Kopie
+	Owner get(int ownerId) {
+		Entry entry = (Entry) this.cache.getIfPresent(ownerId);
+		if (entry != null) {
+			return copy(entry.owner());
+		}
+		long generation = this.invalidations.get();
+		Owner owner = read(ownerId);
+		if (owner != null) {
+			put(ownerId, generation, Entry.of(owner));
+		}
+		return owner;
+	}
+
+	// Liefert die unveränderliche Lesesicht des Besitzers für Detailseite und API; null, wenn es ihn nicht gibt
+	OwnerDetails details(int ownerId) {
+		Entry entry = (Entry) this.cache.getIfPresent(ownerId);
+		if (entry == null) {
+			long generation = this.invalidations.get();
+			Owner owner = read(ownerId);
+			if (owner == null) {
+				return null;
+			}
+			entry = Entry.of(owner);
+			put(ownerId, generation, entry);
+		}
+		return entry.details();
+	}
+
+	// Entfernt den Besitzer nach dem Commit der laufenden Transaktion, auch auf den anderen Instanzen
+	// Ein gleichzeitiges Laden, das noch den alten Stand gelesen haben kann, wird danach nicht mehr eingetragen
+	void evict(int ownerId) {
+		TransactionCallbacks.afterCommit(() -> {
+			invalidate(ownerId);
+			this.bus.ifAvailable(invalidations -> invalidations
+				.publish(new CacheInvalidation(OwnerRepository.OWNERS_CACHE, ownerId)));
+		});
+	}
+
+	// Eine andere Instanz hat einen Besitzer geändert (siehe CacheInvalidationBus); der CacheInvalidationHandler leert
+	// den Eintrag ebenfalls, hier geht es um laufende Ladevorgänge dieser Instanz
+	@EventListener(condition = "#invalidation.covers(T(org.springframework.samples.petclinic.owner.OwnerRepository).OWNERS_CACHE)")
+	void invalidated(CacheInvalidation invalidation) {
+		if (invalidation.key() == null) {
+			this.invalidations.incrementAndGet();
+			this.cache.invalidateAll();
+		}
+		else {
+			invalidate(invalidation.key());
+		}
+	}
+
+	// Erst zählen, dann entfernen: ein Laden, das den alten Zählerstand noch sieht, hat seinen Eintrag schon gemacht
+	private void invalidate(int ownerId) {
+		this.invalidations.incrementAndGet();
+		this.cache.invalidate(ownerId);
+	}
+
+	// Liest das vollständige Aggregat samt Besuchen; geladen wird außerhalb von Caffeine, damit JDBC keine Sperre der
+	// Cache-Map hält, parallele Anfragen nach demselben fehlenden Besitzer laden dabei jede für sich
+	private Owner read(int ownerId) {
+		return this.transactions.execute(status -> {
+			Owner owner = this.owners.findById(ownerId);
+			if (owner != null) {
+				owner.getPets().forEach(pet -> Hibernate.initialize(pet.getVisits()));
+			}
+			return owner;
+		});
+	}
+
+	// Eingetragen wird nur, wenn seit Beginn des Ladens nichts invalidiert wurde; compute sperrt den Schlüssel nur für
+	// diesen Vergleich, ein gleichzeitiges invalidate läuft also davor (kein Eintrag) oder danach (entfernt ihn wieder)
+	private void put(int ownerId, long generation, Entry entry) {
+		this.cache.asMap()
+			.compute(ownerId,
+					(id, cached) -> cached == null && this.invalidations.get() == generation ? entry : cached);
+	}
+
+	// Tiefe Kopie von Besitzer, Haustieren und Besuchen; Haustierarten sind Stammdaten und werden geteilt
+	private static Owner copy(Owner source) {
+		Owner owner = new Owner();
+		owner.setId(source.getId());
+		owner.setFirstName(source.getFirstName());
+		owner.setLastName(source.getLastName());
+		owner.setAddress(source.getAddress());
+		owner.setCity(source.getCity());
+		owner.setTelephone(source.getTelephone());
+		for (Pet sourcePet : source.getPets()) {
+			Pet pet = new Pet();
+			pet.setId(sourcePet.getId());
+			pet.setName(sourcePet.getName());
+			pet.setBirthDate(sourcePet.getBirthDate());
+			pet.setType(sourcePet.getType());
+			for (Visit sourceVisit : sourcePet.getVisits()) {
+				Visit visit = new Visit();
+				visit.setId(sourceVisit.getId());
+				visit.setDate(sourceVisit.getDate());
+				visit.setDescription(sourceVisit.getDescription());
+				pet.addVisit(visit);
+			}
+			owner.getPets().add(pet);
+		}
+		return owner;
+	}
+
+	// Eintrag des Caches: die Kopie des Aggregats und ihre Lesesicht, beide beim Eintragen einmal erstellt
+	private record Entry(Owner owner, OwnerDetails details) {
+
+		static Entry of(Owner source) {
+			Owner owner = copy(source);
+			return new Entry(owner, OwnerDetails.of(owner, Pet::getVisits));
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Cache<Object, Object> nativeCache(CacheManager cacheManager) {
+		return (Cache<Object, Object>) cacheManager.getCache(OwnerRepository.OWNERS_CACHE).getNativeCache();
+	}
+
+}
@@ -5,9 +5,14 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value; // Liest Konfigurationswerte ein
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.samples.petclinic.model.PersonKeyset; // Cursor-Tokens für die Keyset-Paginierung
 import org.springframework.stereotype.Controller; // Markiert die Klasse als Controller in Spring MVC
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult; // Verarbeitet Validierungsfehler von Formularen
@@ -30,12 +35,29 @@ class OwnerController {
 	// Konstante für den Pfad zum Formular zur Erstellung oder Aktualisierung eines Besitzers
 	private static final String VIEWS_OWNER_CREATE_OR_UPDATE_FORM = "owners/createOrUpdateOwnerForm";
 
+	// Anzahl der Einträge pro Seite in der Besitzerliste
+	private static final int PAGE_SIZE = 5;
+
 	// Repository für den Zugriff auf Besitzer-Daten
 	private final OwnerRepository owners;
 
-	// Konstruktor zur Injektion des OwnerRepository
-	public OwnerController(OwnerRepository clinicService) {
+	// Ob die Besitzersuche Keyset-Paginierung statt OFFSET-Seiten verwendet
+	private final boolean keyset;
+
+	// Obergrenze der günstigen Zählung im Keyset-Modus (0 = keine Gesamtzahl anzeigen)
+	private final int countLimit;
+
+	// Lädt den Besitzer nur einmal pro Anfrage für findOwner und die Handler-Methoden
+	private final OwnerLoader ownerLoader;
+
+	// Konstruktor zur Injektion des OwnerRepository, des OwnerLoader und der Paginierungs-Einstellungen
+	public OwnerController(OwnerRepository clinicService, OwnerLoader ownerLoader,
+			@Value("${petclinic.pagination.keyset:false}") boolean keyset,
+			@Value("${petclinic.pagination.count-limit:1000}") int countLimit) {
 			this.owners = clinicService;
+			this.ownerLoader = ownerLoader;
+			this.keyset = keyset;
+			this.countLimit = countLimit;
 	}
 
 	// Initialisiert den WebDataBinder, um bestimmte Felder von der Bindung auszuschließen
@@ -49,7 +71,7 @@ class OwnerController {
 	@ModelAttribute("owner")
 	public Owner findOwner(@PathVariable(name = "ownerId", required = false) Integer ownerId) {
 			// Wenn keine ownerId vorhanden ist, wird ein neuer Owner erstellt, ansonsten wird er aus der Datenbank geladen
-			return ownerId == null ? new Owner() : this.owners.findById(ownerId);
+			return ownerId == null ? new Owner() : this.ownerLoader.load(ownerId);
 	}
 
 	// Zeigt das Formular zur Erstellung eines neuen Besitzers an
@@ -82,24 +104,29 @@ class OwnerController {
 
 	// Verarbeitet die Suche nach Besitzern basierend auf dem Nachnamen
 	@GetMapping("/owners")
-	public String processFindForm(@RequestParam(defaultValue = "1") int page, Owner owner, BindingResult result,
-					Model model) {
+	public String processFindForm(@RequestParam(defaultValue = "1") int page,
+					@RequestParam(required = false) String cursor, Owner owner, BindingResult result, Model model) {
 
 			// Setzt den Nachnamen auf einen leeren String, wenn er nicht gesetzt ist, um alle Ergebnisse anzuzeigen
 			if (owner.getLastName() == null) {
 					owner.setLastName("");
 			}
 
-			// Sucht nach Besitzern mit Paginierung
-			Page<Owner> ownersResults = findPaginatedForOwnersLastName(page, owner.getLastName());
+			// Keyset-Modus: per Konfiguration oder sobald ein Cursor übergeben wird
+			if (this.keyset || cursor != null) {
+					return processFindFormByKeyset(cursor, owner, result, model);
+			}
+
+			// Sucht nach Besitzern mit Paginierung (nur die Spalten der Liste, ohne Owner-Aggregat)
+			Page<OwnerListRow> ownersResults = findPaginatedForOwnersLastName(page, owner.getLastName());
 			if (ownersResults.isEmpty()) {
 					result.rejectValue("lastName", "notFound", "nicht gefunden");
 					return "owners/findOwners"; // Bei keinen Ergebnissen wird das Suchformular erneut angezeigt
 			}
 
 			if (ownersResults.getTotalElements() == 1) {
-					owner = ownersResults.iterator().next();
-					return "redirect:/owners/" + owner.getId(); // Bei genau einem Ergebnis wird zur Detailseite weitergeleitet
+					OwnerListRow row = ownersResults.iterator().next();
+					return "redirect:/owners/" + row.getId(); // Bei genau einem Ergebnis wird zur Detailseite weitergeleitet
 			}
 
 			// Fügt die Suchergebnisse dem Modell hinzu und zeigt die Liste der Besitzer an
@@ -107,8 +134,8 @@ class OwnerController {
 	}
 
 	// Hilfsmethode zum Hinzufügen von Paginierungsinformationen zum Modell
-	private String addPaginationModel(int page, Model model, Page<Owner> paginated) {
-		List<Owner> listOwners = paginated.getContent(); // Holt die aktuelle Seite der Besitzer
+	private String addPaginationModel(int page, Model model, Page<OwnerListRow> paginated) {
+		List<OwnerListRow> listOwners = withPetNames(paginated.getContent()); // Holt die aktuelle Seite der Besitzer
 		model.addAttribute("currentPage", page);
 		model.addAttribute("totalPages", paginated.getTotalPages());
 		model.addAttribute("totalItems", paginated.getTotalElements());
@@ -118,16 +145,47 @@ class OwnerController {
 
 
 	// Hilfsmethode zur Suche nach Besitzern mit Paginierung basierend auf dem Nachnamen
-	private Page<Owner> findPaginatedForOwnersLastName(int page, String lastname) {
-		int pageSize = 5; // Anzahl der Einträge pro Seite
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return owners.findByLastName(lastname, pageable); // Führt die Suche durch
+	private Page<OwnerListRow> findPaginatedForOwnersLastName(int page, String lastname) {
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
+		return owners.findListRowsByLastName(lastname, pageable); // Führt die Suche durch
+	}
+
+	// Ergänzt die Zeilen einer Listenseite mit einer einzigen Abfrage um die Namen ihrer Haustiere
+	private List<OwnerListRow> withPetNames(List<OwnerListRow> rows) {
+		return OwnerListRow.withPetNames(rows, this.owners);
+	}
+
+	// Besitzersuche mit Keyset-Paginierung: liest ab dem Cursor (last_name, id) ohne OFFSET und ohne count(*)
+	private String processFindFormByKeyset(String cursor, Owner owner, BindingResult result, Model model) {
+		KeysetScrollPosition position = PersonKeyset.position(cursor);
+		Window<Owner> window = this.owners.findByLastNameStartingWith(owner.getLastName(), position, PersonKeyset.SORT,
+				Limit.of(PAGE_SIZE));
+		if (window.isEmpty()) {
+				result.rejectValue("lastName", "notFound", "nicht gefunden");
+				return "owners/findOwners"; // Bei keinen Ergebnissen wird das Suchformular erneut angezeigt
+		}
+
+		if (position.isInitial() && window.size() == 1 && !window.hasNext()) {
+				return "redirect:/owners/" + window.getContent().get(0).getId(); // Genau ein Treffer
+		}
+
+		model.addAttribute("keyset", true);
+		model.addAttribute("listOwners", withPetNames(window.getContent().stream().map(OwnerListRow::of).toList()));
+		model.addAttribute("nextCursor", PersonKeyset.nextToken(window, position));
+		model.addAttribute("previousCursor", PersonKeyset.previousToken(window, position));
+		// Optionale, nach oben begrenzte Gesamtzahl statt eines exakten count(*)
+		if (this.countLimit > 0) {
+				long total = this.owners.countByLastNameUpTo(owner.getLastName(), this.countLimit + 1);
+				model.addAttribute("totalItems", Math.min(total, this.countLimit));
+				model.addAttribute("totalCapped", total > this.countLimit);
+		}
+		return "owners/ownersList";
 	}
 
 	// Zeigt das Formular zur Aktualisierung eines bestehenden Besitzers an
 	@GetMapping("/owners/{ownerId}/edit")
 	public String initUpdateOwnerForm(@PathVariable("ownerId") int ownerId, Model model) {
-			Owner owner = this.owners.findById(ownerId); // Lädt den Besitzer aus der Datenbank
+			Owner owner = this.ownerLoader.load(ownerId); // Derselbe Besitzer wie in findOwner, ohne erneute Abfrage
 			model.addAttribute(owner); // Fügt den Besitzer dem Modell hinzu
 			return VIEWS_OWNER_CREATE_OR_UPDATE_FORM; // Gibt den Pfad zum Formular zurück
 	}
@@ -151,8 +209,13 @@ class OwnerController {
 	@GetMapping("/owners/{ownerId}")
 	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId) {
 			ModelAndView mav = new ModelAndView("owners/ownerDetails"); // Erstellt ein neues ModelAndView
-			Owner owner = this.owners.findById(ownerId); // Lädt den Besitzer aus der Datenbank
-			mav.addObject(owner); // Fügt den Besitzer dem ModelAndView hinzu
+			// Fertige Lesesicht statt der Entität (derselbe Besitzer wie in findOwner), damit das Rendern
+			// ohne offene Session auskommt und keine Abfragen mehr auslöst
+			OwnerDetails owner = this.ownerLoader.loadDetails(ownerId);
+			if (owner == null) {
+					throw new IllegalArgumentException("Owner ID not found: " + ownerId);
+			}
+			mav.addObject("owner", owner); // Ersetzt die Entität aus findOwner im Modell
 			return mav; // Gibt das ModelAndView zurück, um die Detailseite anzuzeigen
 	}
 }
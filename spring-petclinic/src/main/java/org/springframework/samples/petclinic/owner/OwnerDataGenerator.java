@@ -0,0 +1,347 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Erzeugt synthetische Besitzer, Haustiere und Besuche für Last- und Skalierungstests
+// Die Daten sind bei gleichem Seed immer gleich (nur die IDs hängen vom Datenbestand ab); die Nachnamen sind
+// Zipf-verteilt, damit einige Präfixe wie in echten Daten sehr viele Treffer haben
+// Geschrieben wird per JDBC-Batch mit expliziten IDs, je Block von 'batchSize' Besitzern eine Transaktion;
+// die IDs werden vorab als zusammenhängender Bereich aus den Sequenzen von Hibernate reserviert (H2, HSQLDB, MySQL,
+// PostgreSQL), die Sequenzen laufen dabei nur vorwärts
+@Component
+public class OwnerDataGenerator {
+
+	private static final Logger logger = LoggerFactory.getLogger(OwnerDataGenerator.class);
+
+	// Schrittweite der gepoolten Sequenzen (allocationSize in BaseEntity)
+	private static final int ALLOCATION_SIZE = 50;
+
+	// Versuche, einen zusammenhängenden ID-Bereich zu ziehen, wenn andere Instanzen gleichzeitig IDs vergeben
+	private static final int RESERVE_ATTEMPTS = 10;
+
+	// Häufige Nachnamen am Anfang der Rangliste, danach Kunstnamen aus Silben
+	private static final String[] COMMON_LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+			"Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+			"Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez",
+			"Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres",
+			"Nguyen", "Hill", "Flores" };
+
+	private static final String[] LAST_NAME_PREFIXES = { "Ash", "Bel", "Cor", "Dal", "El", "Fen", "Gar", "Hal",
+			"Ir", "Jen", "Kel", "Lin", "Mor", "Nor", "Or", "Pen", "Quin", "Ros", "Stan", "Tor" };
+
+	private static final String[] LAST_NAME_SUFFIXES = { "ford", "ley", "ton", "wood", "berg", "man", "son", "field",
+			"well", "by", "more", "den", "stone", "ridge", "worth", "hall", "brook", "croft", "lock", "ham", "land",
+			"mont", "vale", "wick", "ward" };
+
+	private static final String[] FIRST_NAMES = { "George", "Betty", "Eduardo", "Harold", "Peter", "Jean", "Jeff",
+			"Maria", "David", "Carlos", "Anna", "James", "Mary", "Robert", "Linda", "Michael", "Susan", "William",
+			"Karen", "Richard", "Lisa", "Joseph", "Nancy", "Daniel", "Sandra", "Paul", "Emily", "Mark", "Donna",
+			"Steven", "Carol", "Kevin", "Ruth", "Brian", "Sharon", "Jason", "Laura", "Ryan", "Amy", "Eric" };
+
+	private static final String[] PET_NAMES = { "Leo", "Basil", "Rosy", "Jewel", "Iggy", "George", "Samantha", "Max",
+			"Lucky", "Mulligan", "Freddy", "Sly", "Bella", "Charlie", "Luna", "Cooper", "Daisy", "Milo", "Lola",
+			"Rocky", "Coco", "Buddy", "Nala", "Oscar", "Ruby", "Teddy", "Zoe", "Jack", "Lily", "Toby" };
+
+	private static final String[] CITIES = { "Madison", "Sun Prairie", "McFarland", "Windsor", "Monona", "Waunakee",
+			"Middleton", "Verona", "Fitchburg", "Stoughton" };
+
+	private static final String[] STREETS = { "Main St.", "Oak Ave.", "Lake St.", "Park Blvd.", "Cedar Ct.",
+			"Maple Dr.", "Elm St.", "Hill Rd." };
+
+	private static final String[] VISIT_DESCRIPTIONS = { "rabies shot", "checkup", "neutered", "spayed",
+			"dental cleaning", "vaccination", "skin allergy", "limping", "ear infection", "follow-up" };
+
+	// Feste Zeitachse statt LocalDate.now(), damit die Daten reproduzierbar bleiben
+	private static final long FIRST_BIRTH_DAY = LocalDate.of(2005, 1, 1).toEpochDay();
+
+	private static final long LAST_BIRTH_DAY = LocalDate.of(2023, 12, 31).toEpochDay();
+
+	private static final long LAST_VISIT_DAY = LocalDate.of(2024, 12, 31).toEpochDay();
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactions;
+
+	// Optionaler Nachnamen-Index, der nach dem Laden neu aufgebaut wird
+	private final ObjectProvider<OwnerLastNameIndex> lastNameIndex;
+
+	OwnerDataGenerator(DataSource dataSource, PlatformTransactionManager transactionManager,
+			ObjectProvider<OwnerLastNameIndex> lastNameIndex) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.lastNameIndex = lastNameIndex;
+	}
+
+	// Erzeugt und speichert die Daten gemäß der Vorgabe
+	public Result generate(Volume volume) {
+		long start = System.nanoTime();
+		Sequences sequences = Sequences.of(this.dataSource);
+		int[] types = this.jdbcTemplate.queryForList("SELECT id FROM types ORDER BY id", Integer.class)
+			.stream()
+			.mapToInt(Integer::intValue)
+			.toArray();
+		if (types.length == 0) {
+			throw new IllegalStateException("No pet types found, the schema has to be initialized first");
+		}
+		LastNames lastNames = new LastNames(volume.nameSkew());
+		SplittableRandom random = new SplittableRandom(volume.seed());
+
+		long petCount = (long) volume.owners() * volume.petsPerOwner();
+		int firstOwnerId = reserve(sequences, "owners", volume.owners());
+		int ownerId = firstOwnerId;
+		int petId = reserve(sequences, "pets", petCount);
+		int visitId = reserve(sequences, "visits", petCount * volume.visitsPerPet());
+		long pets = 0;
+		long visits = 0;
+		for (int first = 0; first < volume.owners(); first += volume.batchSize()) {
+			int count = Math.min(volume.batchSize(), volume.owners() - first);
+			List<Object[]> ownerRows = new ArrayList<>(count);
+			List<Object[]> petRows = new ArrayList<>(count * volume.petsPerOwner());
+			List<Object[]> visitRows = new ArrayList<>(count * volume.petsPerOwner() * volume.visitsPerPet());
+			for (int i = 0; i < count; i++) {
+				int owner = ownerId++;
+				ownerRows.add(new Object[] { owner, pick(random, FIRST_NAMES), lastNames.next(random),
+						(1 + random.nextInt(9999)) + " " + pick(random, STREETS), pick(random, CITIES),
+						String.valueOf(6_000_000_000L + random.nextLong(1_000_000_000L)) });
+				// Fortlaufende Namen ab zufälliger Position, damit die Namen je Besitzer eindeutig bleiben
+				int offset = random.nextInt(PET_NAMES.length);
+				for (int p = 0; p < volume.petsPerOwner(); p++) {
+					int pet = petId++;
+					String name = PET_NAMES[(offset + p) % PET_NAMES.length];
+					if (p >= PET_NAMES.length) {
+						name = name + (p / PET_NAMES.length + 1);
+					}
+					long birthDay = FIRST_BIRTH_DAY + random.nextLong(LAST_BIRTH_DAY - FIRST_BIRTH_DAY + 1);
+					petRows.add(new Object[] { pet, name, Date.valueOf(LocalDate.ofEpochDay(birthDay)),
+							types[random.nextInt(types.length)], owner });
+					for (int v = 0; v < volume.visitsPerPet(); v++) {
+						long visitDay = birthDay + random.nextLong(LAST_VISIT_DAY - birthDay + 1);
+						visitRows.add(new Object[] { visitId++, pet, Date.valueOf(LocalDate.ofEpochDay(visitDay)),
+								pick(random, VISIT_DESCRIPTIONS) });
+					}
+				}
+			}
+			this.transactions.executeWithoutResult(status -> {
+				this.jdbcTemplate.batchUpdate(
+						"INSERT INTO owners (id, first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?, ?)",
+						ownerRows);
+				this.jdbcTemplate.batchUpdate(
+						"INSERT INTO pets (id, name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?, ?)", petRows);
+				this.jdbcTemplate.batchUpdate("INSERT INTO visits (id, pet_id, visit_date, description) VALUES (?, ?, ?, ?)",
+						visitRows);
+			});
+			pets += petRows.size();
+			visits += visitRows.size();
+			logger.debug("Generated {} of {} owners", first + count, volume.owners());
+		}
+
+		this.lastNameIndex.ifAvailable(OwnerLastNameIndex::build);
+
+		Result result = new Result(firstOwnerId, volume.owners(), pets, visits, Duration.ofNanos(System.nanoTime() - start));
+		logger.info("Generated {} owners, {} pets and {} visits in {} ms ({} rows/s)", result.owners(), result.pets(),
+				result.visits(), result.duration().toMillis(), result.getRowsPerSecond());
+		return result;
+	}
+
+	// Reserviert count fortlaufende IDs aus der Sequenz der Tabelle und liefert die erste
+	// Wie Hibernates gepoolter Optimierer gehören zu jedem gezogenen Wert die ALLOCATION_SIZE IDs bis einschließlich
+	// dieses Werts; gezogen werden so viele Werte, dass ihre Blöcke alle IDs abdecken. Hat eine andere Instanz
+	// zwischendurch einen Block gezogen, ist der Bereich nicht zusammenhängend und es wird erneut gezogen
+	private int reserve(Sequences sequences, String table, long count) {
+		if (count == 0) {
+			return 0;
+		}
+		int blocks = Math.toIntExact((count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE);
+		for (int attempt = 0; attempt < RESERVE_ATTEMPTS; attempt++) {
+			List<Long> values = sequences.next(this.jdbcTemplate, table + "_seq", blocks);
+			long first = Collections.min(values) - ALLOCATION_SIZE + 1;
+			long last = Collections.max(values);
+			if (last - first + 1 == (long) blocks * ALLOCATION_SIZE) {
+				// Zeilen hinter der Sequenz stammen nicht aus ihr und würden mit dem Bereich kollidieren
+				Integer maxId = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Integer.class);
+				if (maxId != null && maxId >= first) {
+					throw new IllegalStateException(
+							"Table " + table + " has ids up to " + maxId + " that were not drawn from " + table + "_seq");
+				}
+				return Math.toIntExact(first);
+			}
+		}
+		throw new IllegalStateException("Could not reserve " + count + " contiguous ids from " + table + "_seq");
+	}
+
+	private static String pick(SplittableRandom random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	// Umfang der erzeugten Daten
+	// owners Besitzer mit je petsPerOwner Haustieren mit je visitsPerPet Besuchen; nameSkew ist der
+	// Zipf-Exponent der Nachnamen (0 = gleichverteilt, 1 = der häufigste Name etwa 13 %)
+	public record Volume(int owners, int petsPerOwner, int visitsPerPet, long seed, double nameSkew, int batchSize) {
+
+		public Volume {
+			if (owners < 0 || petsPerOwner < 0 || visitsPerPet < 0 || nameSkew < 0 || batchSize < 1) {
+				throw new IllegalArgumentException("Invalid volume: owners=" + owners + ", petsPerOwner="
+						+ petsPerOwner + ", visitsPerPet=" + visitsPerPet + ", nameSkew=" + nameSkew + ", batchSize="
+						+ batchSize);
+			}
+		}
+
+		// Standardwerte für Seed (42), Verteilung (Zipf 1.0) und Blockgröße (1000 Besitzer)
+		public static Volume of(int owners, int petsPerOwner, int visitsPerPet) {
+			return new Volume(owners, petsPerOwner, visitsPerPet, 42, 1.0, 1000);
+		}
+
+		public Volume withSeed(long seed) {
+			return new Volume(this.owners, this.petsPerOwner, this.visitsPerPet, seed, this.nameSkew, this.batchSize);
+		}
+
+	}
+
+	// Anzahl der erzeugten Zeilen und benötigte Zeit; die Besitzer haben fortlaufende IDs ab firstOwnerId
+	public record Result(int firstOwnerId, long owners, long pets, long visits, Duration duration) {
+
+		public long getRows() {
+			return this.owners + this.pets + this.visits;
+		}
+
+		public long getRowsPerSecond() {
+			long nanos = Math.max(this.duration.toNanos(), 1);
+			return getRows() * 1_000_000_000L / nanos;
+		}
+
+	}
+
+	// Zipf-verteilte Auswahl aus den Nachnamen über die kumulierten Gewichte und eine Binärsuche
+	private static final class LastNames {
+
+		private final String[] names;
+
+		private final double[] cumulative;
+
+		private LastNames(double skew) {
+			this.names = new String[COMMON_LAST_NAMES.length + LAST_NAME_PREFIXES.length * LAST_NAME_SUFFIXES.length];
+			System.arraycopy(COMMON_LAST_NAMES, 0, this.names, 0, COMMON_LAST_NAMES.length);
+			int i = COMMON_LAST_NAMES.length;
+			for (String suffix : LAST_NAME_SUFFIXES) {
+				for (String prefix : LAST_NAME_PREFIXES) {
+					this.names[i++] = prefix + suffix;
+				}
+			}
+			this.cumulative = new double[this.names.length];
+			double sum = 0;
+			for (int rank = 0; rank < this.names.length; rank++) {
+				sum += 1 / Math.pow(rank + 1, skew);
+				this.cumulative[rank] = sum;
+			}
+		}
+
+		private String next(SplittableRandom random) {
+			double value = random.nextDouble() * this.cumulative[this.cumulative.length - 1];
+			int low = 0;
+			int high = this.cumulative.length - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (this.cumulative[mid] < value) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return this.names[low];
+		}
+
+	}
+
+	// Zugriff auf die ID-Sequenzen von Hibernate je Datenbank: zieht mehrere Werte mit einer Anweisung
+	private enum Sequences {
+
+		H2("SELECT NEXT VALUE FOR %s FROM SYSTEM_RANGE(1, ?)"),
+
+		HSQLDB("SELECT NEXT VALUE FOR %s FROM UNNEST(SEQUENCE_ARRAY(1, ?, 1))"),
+
+		// MySQL kennt keine Sequenzen, dort emuliert Hibernate sie mit einzeiligen Tabellen (siehe schema.sql), deren
+		// next_val der nächste ausgegebene Wert ist; LAST_INSERT_ID(expr) merkt sich den neuen Wert für die Verbindung,
+		// so werden alle Werte mit einer atomaren Anweisung gezogen
+		MYSQL("UPDATE %s SET next_val = LAST_INSERT_ID(next_val + ?)") {
+
+			@Override
+			List<Long> next(JdbcTemplate jdbcTemplate, String sequence, int count) {
+				long end = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+					try (PreparedStatement update = connection.prepareStatement(this.nextSql.formatted(sequence));
+							Statement select = connection.createStatement()) {
+						update.setLong(1, (long) count * ALLOCATION_SIZE);
+						update.executeUpdate();
+						try (ResultSet rs = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+							rs.next();
+							return rs.getLong(1);
+						}
+					}
+				});
+				return LongStream.range(0, count).mapToObj(i -> end - (count - i) * (long) ALLOCATION_SIZE).toList();
+			}
+
+		},
+
+		POSTGRESQL("SELECT nextval('%s') FROM generate_series(1, ?)");
+
+		final String nextSql;
+
+		Sequences(String nextSql) {
+			this.nextSql = nextSql;
+		}
+
+		List<Long> next(JdbcTemplate jdbcTemplate, String sequence, int count) {
+			return jdbcTemplate.queryForList(this.nextSql.formatted(sequence), Long.class, count);
+		}
+
+		static Sequences of(DataSource dataSource) {
+			String productName;
+			try {
+				productName = JdbcUtils.extractDatabaseMetaData(dataSource,
+						DatabaseMetaData::getDatabaseProductName);
+			}
+			catch (MetaDataAccessException ex) {
+				throw new IllegalStateException("Cannot determine the database", ex);
+			}
+			return switch (DatabaseDriver.fromProductName(productName)) {
+				case H2 -> H2;
+				case HSQLDB -> HSQLDB;
+				case MYSQL, MARIADB -> MYSQL;
+				case POSTGRESQL -> POSTGRESQL;
+				default -> throw new IllegalStateException("Unsupported database: " + productName);
+			};
+		}
+
+	}
+
+}
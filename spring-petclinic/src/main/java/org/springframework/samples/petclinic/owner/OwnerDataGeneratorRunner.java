@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Erzeugt beim Start synthetische Daten, wenn das Profil "generate" aktiv ist, z.B.
+// ./mvnw spring-boot:run -Dspring-boot.run.profiles=mysql,generate -Dspring-boot.run.arguments=--petclinic.generator.owners=1000000
+// Die Vorgaben stehen in application-generate.properties
+@Component
+@Profile("generate")
+class OwnerDataGeneratorRunner implements ApplicationRunner {
+
+	private final OwnerDataGenerator generator;
+
+	private final OwnerDataGenerator.Volume volume;
+
+	OwnerDataGeneratorRunner(OwnerDataGenerator generator, @Value("${petclinic.generator.owners}") int owners,
+			@Value("${petclinic.generator.pets-per-owner}") int petsPerOwner,
+			@Value("${petclinic.generator.visits-per-pet}") int visitsPerPet,
+			@Value("${petclinic.generator.seed}") long seed, @Value("${petclinic.generator.name-skew}") double nameSkew,
+			@Value("${petclinic.generator.batch-size}") int batchSize) {
+		this.generator = generator;
+		this.volume = new OwnerDataGenerator.Volume(owners, petsPerOwner, visitsPerPet, seed, nameSkew, batchSize);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		this.generator.generate(this.volume);
+	}
+
+}
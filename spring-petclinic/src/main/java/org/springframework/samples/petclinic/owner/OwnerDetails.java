@@ -0,0 +1,144 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+// Unveränderliche Lesesicht eines Besitzers samt Haustieren und Besuchen für die Detailseite (ownerDetails.html)
+// und die bisherigen Besuche im Besuchsformular
+// Wird vollständig im Controller aufgebaut, damit die View ohne offene Session (spring.jpa.open-in-view=false)
+// keine Entitäten mehr berührt und keine Lazy Loads auslösen kann
+public class OwnerDetails {
+
+	private final Integer id;
+
+	private final String firstName;
+
+	private final String lastName;
+
+	private final String address;
+
+	private final String city;
+
+	private final String telephone;
+
+	private final List<PetDetails> pets;
+
+	private OwnerDetails(Owner owner, List<PetDetails> pets) {
+		this.id = owner.getId();
+		this.firstName = owner.getFirstName();
+		this.lastName = owner.getLastName();
+		this.address = owner.getAddress();
+		this.city = owner.getCity();
+		this.telephone = owner.getTelephone();
+		this.pets = List.copyOf(pets);
+	}
+
+	// Baut die Lesesicht aus dem Besitzer; die Besuche je Haustier liefert 'visits', damit der Aufrufer entscheidet,
+	// ob sie aus dem Aggregat stammen oder nachgeladen wurden
+	static OwnerDetails of(Owner owner, Function<Pet, Collection<Visit>> visits) {
+		return new OwnerDetails(owner,
+				owner.getPets().stream().map(pet -> new PetDetails(pet, visits.apply(pet))).toList());
+	}
+
+	public Integer getId() {
+		return this.id;
+	}
+
+	public String getFirstName() {
+		return this.firstName;
+	}
+
+	public String getLastName() {
+		return this.lastName;
+	}
+
+	public String getAddress() {
+		return this.address;
+	}
+
+	public String getCity() {
+		return this.city;
+	}
+
+	public String getTelephone() {
+		return this.telephone;
+	}
+
+	public List<PetDetails> getPets() {
+		return this.pets;
+	}
+
+	// Sucht ein Haustier nach seiner ID; null, wenn der Besitzer es nicht hat
+	public PetDetails getPet(Integer id) {
+		return this.pets.stream().filter(pet -> id.equals(pet.getId())).findFirst().orElse(null);
+	}
+
+	// Haustier mit dem Namen seiner Art und seinen Besuchen
+	public static class PetDetails {
+
+		private final Integer id;
+
+		private final String name;
+
+		private final LocalDate birthDate;
+
+		private final String type;
+
+		private final List<VisitDetails> visits;
+
+		private PetDetails(Pet pet, Collection<Visit> visits) {
+			this.id = pet.getId();
+			this.name = pet.getName();
+			this.birthDate = pet.getBirthDate();
+			this.type = pet.getType() == null ? null : pet.getType().getName();
+			this.visits = visits.stream().map(VisitDetails::new).toList();
+		}
+
+		public Integer getId() {
+			return this.id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public LocalDate getBirthDate() {
+			return this.birthDate;
+		}
+
+		public String getType() {
+			return this.type;
+		}
+
+		public List<VisitDetails> getVisits() {
+			return this.visits;
+		}
+
+	}
+
+	// Besuch mit Datum und Beschreibung
+	public static class VisitDetails {
+
+		private final LocalDate date;
+
+		private final String description;
+
+		private VisitDetails(Visit visit) {
+			this.date = visit.getDate();
+			this.description = visit.getDescription();
+		}
+
+		public LocalDate getDate() {
+			return this.date;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+	}
+
+}
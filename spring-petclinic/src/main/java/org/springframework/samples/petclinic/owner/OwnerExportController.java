@@ -0,0 +1,51 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Stellt den Export aller Besitzer mit Haustieren und Besuchen bereit
+// Die Antwort wird während des Lesens geschrieben; das Format folgt dem Accept-Header
+@Controller
+class OwnerExportController {
+
+	private final OwnerExporter exporter;
+
+	OwnerExportController(OwnerExporter exporter) {
+		this.exporter = exporter;
+	}
+
+	// GET /owners/export als JSON-Array
+	@GetMapping(value = "/owners/export", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportJson() {
+		return export(OwnerExportFormat.JSON);
+	}
+
+	// GET /owners/export als NDJSON, ein Besitzer pro Zeile
+	@GetMapping(value = "/owners/export", produces = "application/x-ndjson")
+	public ResponseEntity<StreamingResponseBody> exportNdjson() {
+		return export(OwnerExportFormat.NDJSON);
+	}
+
+	// GET /owners/export als CSV im Format des Imports
+	@GetMapping(value = "/owners/export", produces = "text/csv")
+	public ResponseEntity<StreamingResponseBody> exportCsv() {
+		return export(OwnerExportFormat.CSV);
+	}
+
+	private ResponseEntity<StreamingResponseBody> export(OwnerExportFormat format) {
+		ContentDisposition disposition = ContentDisposition.attachment()
+			.filename("owners." + format.extension())
+			.build();
+		return ResponseEntity.ok()
+			.contentType(MediaType.parseMediaType(format.mediaType()))
+			.header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+			.body(out -> this.exporter.export(format, out));
+	}
+
+}
@@ -0,0 +1,171 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+// Ausgabeformate des Besitzer-Exports; NDJSON und CSV entsprechen den Formaten des Imports (OwnerImportReader),
+// sodass ein Export wieder importiert werden kann
+enum OwnerExportFormat {
+
+	// Ein JSON-Array von Besitzern, das Element für Element geschrieben wird
+	JSON("application/json", "json") {
+		@Override
+		Writer open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+			JsonGenerator generator = objectMapper.getFactory()
+				.createGenerator(out, JsonEncoding.UTF8)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+			generator.writeStartArray();
+			return new Writer() {
+				@Override
+				public void write(OwnerImportRecord owner) throws IOException {
+					writer.writeValue(generator, owner);
+				}
+
+				@Override
+				public void flush() throws IOException {
+					generator.flush();
+				}
+
+				@Override
+				public void close() throws IOException {
+					generator.writeEndArray();
+					generator.close();
+				}
+			};
+		}
+	},
+
+	// Ein Besitzer pro Zeile
+	NDJSON("application/x-ndjson", "ndjson") {
+		@Override
+		Writer open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+			ObjectWriter writer = objectMapper.writer();
+			return new Writer() {
+				@Override
+				public void write(OwnerImportRecord owner) throws IOException {
+					out.write(writer.writeValueAsBytes(owner));
+					out.write('\n');
+				}
+
+				@Override
+				public void flush() throws IOException {
+					out.flush();
+				}
+
+				@Override
+				public void close() throws IOException {
+					out.flush();
+				}
+			};
+		}
+	},
+
+	// Eine Zeile pro Besuch, Haustier ohne Besuche bzw. Besitzer ohne Haustiere
+	CSV("text/csv", "csv") {
+		@Override
+		Writer open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+			CsvSchema.Builder schema = CsvSchema.builder();
+			for (String column : CsvOwnerImportReader.COLUMNS) {
+				schema.addColumn(column);
+			}
+			SequenceWriter sequence = CsvMapper.builder()
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.build()
+				.writerFor(Map.class)
+				.with(schema.build().withHeader())
+				.writeValues(out);
+			return new Writer() {
+				@Override
+				public void write(OwnerImportRecord owner) throws IOException {
+					if (owner.pets().isEmpty()) {
+						sequence.write(row(owner, null, null));
+					}
+					for (OwnerImportRecord.PetRecord pet : owner.pets()) {
+						if (pet.visits().isEmpty()) {
+							sequence.write(row(owner, pet, null));
+						}
+						for (OwnerImportRecord.VisitRecord visit : pet.visits()) {
+							sequence.write(row(owner, pet, visit));
+						}
+					}
+				}
+
+				@Override
+				public void flush() throws IOException {
+					sequence.flush();
+				}
+
+				@Override
+				public void close() throws IOException {
+					sequence.close();
+				}
+			};
+		}
+
+		private Map<String, Object> row(OwnerImportRecord owner, OwnerImportRecord.PetRecord pet,
+				OwnerImportRecord.VisitRecord visit) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("firstName", owner.firstName());
+			row.put("lastName", owner.lastName());
+			row.put("address", owner.address());
+			row.put("city", owner.city());
+			row.put("telephone", owner.telephone());
+			row.put("petName", pet == null ? null : pet.name());
+			row.put("petBirthDate", pet == null ? null : Objects.toString(pet.birthDate(), null));
+			row.put("petType", pet == null ? null : pet.type());
+			row.put("visitDate", visit == null ? null : Objects.toString(visit.date(), null));
+			row.put("visitDescription", visit == null ? null : visit.description());
+			return row;
+		}
+	};
+
+	// Content-Type der Antwort
+	private final String mediaType;
+
+	// Dateiendung für den Download
+	private final String extension;
+
+	OwnerExportFormat(String mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+
+	String mediaType() {
+		return this.mediaType;
+	}
+
+	String extension() {
+		return this.extension;
+	}
+
+	// Öffnet einen Schreiber, der Besitzer einzeln in den Ausgabestrom schreibt
+	abstract Writer open(OutputStream out, ObjectMapper objectMapper) throws IOException;
+
+	// Schreibt Besitzer inkrementell; close() schließt das Dokument ab, der Ausgabestrom bleibt offen
+	interface Writer extends AutoCloseable {
+
+		void write(OwnerImportRecord owner) throws IOException;
+
+		void flush() throws IOException;
+
+		@Override
+		void close() throws IOException;
+
+	}
+
+}
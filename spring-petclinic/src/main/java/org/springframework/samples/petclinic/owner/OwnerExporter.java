@@ -0,0 +1,161 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Exportiert alle Besitzer mit Haustieren und Besuchen als Strom
+// Eine einzige, nach Besitzer/Haustier/Besuch sortierte Abfrage wird mit einem Vorwärts-Cursor gelesen
+// (Fetch-Size petclinic.export.fetch-size); jeder Besitzer wird geschrieben, sobald seine Zeilen vollständig sind.
+// Im Speicher liegt daher immer nur ein Besitzer, und die ersten Bytes gehen sofort an den Client
+@Component
+class OwnerExporter {
+
+	// Eine Zeile pro Besuch; Besitzer ohne Haustiere und Haustiere ohne Besuche über LEFT JOIN
+	private static final String QUERY = "SELECT o.id, o.first_name, o.last_name, o.address, o.city, o.telephone, "
+			+ "p.id, p.name, p.birth_date, t.name, v.visit_date, v.description FROM owners o "
+			+ "LEFT JOIN pets p ON p.owner_id = o.id LEFT JOIN types t ON t.id = p.type_id "
+			+ "LEFT JOIN visits v ON v.pet_id = p.id ORDER BY o.id, p.id, v.id";
+
+	// Nach so vielen Besitzern wird der Ausgabestrom geleert, damit der Client fortlaufend Daten erhält
+	private static final int FLUSH_INTERVAL = 100;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	// Lesende Transaktion; PostgreSQL nutzt die Fetch-Size nur innerhalb einer Transaktion als Cursor
+	private final TransactionTemplate transactions;
+
+	private final ObjectMapper objectMapper;
+
+	OwnerExporter(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+			@Value("${petclinic.export.fetch-size:500}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.transactions.setReadOnly(true);
+		this.objectMapper = objectMapper;
+	}
+
+	// Schreibt alle Besitzer im gewünschten Format in den Ausgabestrom
+	void export(OwnerExportFormat format, OutputStream out) throws IOException {
+		try (OwnerExportFormat.Writer writer = format.open(out, this.objectMapper)) {
+			OwnerRows rows = new OwnerRows(writer);
+			try {
+				this.transactions.executeWithoutResult(status -> this.jdbcTemplate.query(QUERY, rows));
+			}
+			catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+			rows.finish();
+		}
+	}
+
+	// Fasst die Zeilen eines Besitzers zusammen und schreibt ihn, sobald der nächste beginnt
+	private static final class OwnerRows implements RowCallbackHandler {
+
+		private final OwnerExportFormat.Writer writer;
+
+		private int ownerId = -1;
+
+		private String[] owner;
+
+		private List<OwnerImportRecord.PetRecord> pets = new ArrayList<>();
+
+		private int petId = -1;
+
+		private String petName;
+
+		private LocalDate petBirthDate;
+
+		private String petType;
+
+		private List<OwnerImportRecord.VisitRecord> visits = new ArrayList<>();
+
+		private int written;
+
+		private OwnerRows(OwnerExportFormat.Writer writer) {
+			this.writer = writer;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			int currentOwner = rs.getInt(1);
+			if (currentOwner != this.ownerId) {
+				finish();
+				this.ownerId = currentOwner;
+				this.owner = new String[] { rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+						rs.getString(6) };
+			}
+			int currentPet = rs.getInt(7);
+			if (rs.wasNull()) {
+				return;
+			}
+			if (currentPet != this.petId) {
+				finishPet();
+				this.petId = currentPet;
+				this.petName = rs.getString(8);
+				this.petBirthDate = toLocalDate(rs.getDate(9));
+				this.petType = rs.getString(10);
+			}
+			LocalDate visitDate = toLocalDate(rs.getDate(11));
+			String description = rs.getString(12);
+			if (visitDate != null || description != null) {
+				this.visits.add(new OwnerImportRecord.VisitRecord(visitDate, description));
+			}
+		}
+
+		// Schreibt den aktuellen Besitzer, falls vorhanden
+		void finish() {
+			if (this.owner == null) {
+				return;
+			}
+			finishPet();
+			try {
+				this.writer.write(new OwnerImportRecord(this.owner[0], this.owner[1], this.owner[2], this.owner[3],
+						this.owner[4], this.pets));
+				if (++this.written % FLUSH_INTERVAL == 1) {
+					this.writer.flush();
+				}
+			}
+			catch (IOException ex) {
+				// Abbruch der Abfrage, z.B. wenn der Client die Verbindung schließt
+				throw new UncheckedIOException(ex);
+			}
+			this.owner = null;
+			this.pets = new ArrayList<>();
+		}
+
+		private void finishPet() {
+			if (this.petId == -1) {
+				return;
+			}
+			this.pets.add(new OwnerImportRecord.PetRecord(this.petName, this.petBirthDate, this.petType, this.visits));
+			this.petId = -1;
+			this.visits = new ArrayList<>();
+		}
+
+		private static LocalDate toLocalDate(Date date) {
+			return date == null ? null : date.toLocalDate();
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Nimmt Massenimporte von Besitzern mit Haustieren und Besuchen entgegen
+// Der Anfragekörper wird gestreamt gelesen (CSV oder NDJSON) und nie vollständig in den Speicher geladen
+@Controller
+class OwnerImportController {
+
+	private final OwnerImporter importer;
+
+	private final ObjectMapper objectMapper;
+
+	OwnerImportController(OwnerImporter importer, ObjectMapper objectMapper) {
+		this.importer = importer;
+		this.objectMapper = objectMapper;
+	}
+
+	// POST /owners/import mit Content-Type text/csv oder application/x-ndjson
+	// Antwortet mit dem Importbericht (Zähler, Durchsatz, abgelehnte Zeilen)
+	@PostMapping(value = "/owners/import", consumes = { "text/csv", "application/x-ndjson" })
+	public @ResponseBody OwnerImportReport importOwners(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body) throws IOException {
+		try (OwnerImportReader reader = OwnerImportReader.forFormat(contentType,
+				new InputStreamReader(body, StandardCharsets.UTF_8), this.objectMapper)) {
+			return this.importer.importOwners(reader);
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Liest zu importierende Besitzer Datensatz für Datensatz aus einem Zeichenstrom
+// Es wird immer nur der aktuelle Datensatz im Speicher gehalten, unabhängig von der Dateigröße
+interface OwnerImportReader extends Closeable {
+
+	// Liefert den nächsten Besitzer oder null am Ende der Eingabe
+	// Ein fehlerhafter Datensatz wird vollständig übersprungen und als InvalidRecordException gemeldet;
+	// danach kann weitergelesen werden
+	OwnerImportRecord next() throws IOException;
+
+	// Zeilennummer, an der der zuletzt gelesene Datensatz beginnt
+	long line();
+
+	// Ein Besitzer pro Zeile als JSON-Objekt (NDJSON)
+	static OwnerImportReader ndjson(Reader reader, ObjectMapper objectMapper) {
+		return new NdjsonOwnerImportReader(reader, objectMapper);
+	}
+
+	// Eine Zeile pro Besuch bzw. Haustier bzw. Besitzer; aufeinanderfolgende Zeilen mit gleichen Besitzerdaten
+	// bilden einen Besitzer (siehe CsvOwnerImportReader)
+	static OwnerImportReader csv(Reader reader) throws IOException {
+		return new CsvOwnerImportReader(reader);
+	}
+
+	// Wählt das Format anhand des Content-Types bzw. der Dateiendung
+	static OwnerImportReader forFormat(String format, Reader reader, ObjectMapper objectMapper) throws IOException {
+		return format != null && format.toLowerCase().contains("csv") ? csv(reader) : ndjson(reader, objectMapper);
+	}
+
+	// Ein nicht lesbarer Datensatz; der Import läuft mit dem nächsten weiter
+	class InvalidRecordException extends RuntimeException {
+
+		private final long line;
+
+		InvalidRecordException(long line, String message) {
+			super(message);
+			this.line = line;
+		}
+
+		long getLine() {
+			return this.line;
+		}
+
+	}
+
+}
@@ -0,0 +1,40 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Ein zu importierender Besitzer mit seinen Haustieren und deren Besuchen
+// Entspricht einer Zeile im NDJSON-Format bzw. einer Gruppe aufeinanderfolgender CSV-Zeilen
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OwnerImportRecord(String firstName, String lastName, String address, String city, String telephone,
+		List<PetRecord> pets) {
+
+	// Fehlende Listen werden als leer behandelt
+	public OwnerImportRecord {
+		pets = pets == null ? List.of() : List.copyOf(pets);
+	}
+
+	// Anzahl der Datensätze (Besitzer, Haustiere, Besuche) für Durchsatz und Bericht
+	int rows() {
+		return 1 + this.pets.stream().mapToInt(pet -> 1 + pet.visits().size()).sum();
+	}
+
+	// Ein Haustier; 'type' ist der Name der Haustierart, z.B. "cat"
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public record PetRecord(String name, LocalDate birthDate, String type, List<VisitRecord> visits) {
+
+		public PetRecord {
+			visits = visits == null ? List.of() : List.copyOf(visits);
+		}
+
+	}
+
+	// Ein Besuch eines Haustiers
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public record VisitRecord(LocalDate date, String description) {
+	}
+
+}
@@ -0,0 +1,89 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Ergebnis eines Imports: Zähler, Durchsatz und die ersten abgelehnten Datensätze
+// Die Liste der Ablehnungen ist begrenzt, damit auch sehr große Importe mit konstantem Speicher auskommen
+public class OwnerImportReport {
+
+	// Höchstens so viele Ablehnungen werden mit Zeile und Grund aufgeführt, gezählt werden alle
+	static final int MAX_LISTED_REJECTIONS = 100;
+
+	private long owners;
+
+	private long pets;
+
+	private long visits;
+
+	private long rejected;
+
+	private int chunks;
+
+	private long millis;
+
+	private final List<Rejection> rejections = new ArrayList<>();
+
+	// Zählt einen erfolgreich gespeicherten Besitzer samt Haustieren und Besuchen
+	void imported(OwnerImportRecord record) {
+		this.owners++;
+		this.pets += record.pets().size();
+		this.visits += record.rows() - 1 - record.pets().size();
+	}
+
+	// Merkt einen abgelehnten Datensatz mit Zeile und Grund
+	void rejected(long line, String reason) {
+		this.rejected++;
+		if (this.rejections.size() < MAX_LISTED_REJECTIONS) {
+			this.rejections.add(new Rejection(line, reason));
+		}
+	}
+
+	void chunkStored() {
+		this.chunks++;
+	}
+
+	void finished(long millis) {
+		this.millis = millis;
+	}
+
+	public long getOwners() {
+		return this.owners;
+	}
+
+	public long getPets() {
+		return this.pets;
+	}
+
+	public long getVisits() {
+		return this.visits;
+	}
+
+	public long getRejected() {
+		return this.rejected;
+	}
+
+	public int getChunks() {
+		return this.chunks;
+	}
+
+	public long getMillis() {
+		return this.millis;
+	}
+
+	// Gespeicherte Datensätze (Besitzer, Haustiere, Besuche) pro Sekunde über den ganzen Import
+	public long getRowsPerSecond() {
+		return (this.owners + this.pets + this.visits) * 1000 / Math.max(this.millis, 1);
+	}
+
+	public List<Rejection> getRejections() {
+		return Collections.unmodifiableList(this.rejections);
+	}
+
+	// Ein abgelehnter Datensatz: Zeile in der Eingabe und Grund
+	public record Rejection(long line, String reason) {
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Kommandozeilen-Import beim Start, z.B.
+// java -jar petclinic.jar --petclinic.import.file=owners.csv --spring.main.web-application-type=none
+// Das Format ergibt sich aus der Dateiendung (.csv, sonst NDJSON)
+@Component
+@ConditionalOnProperty(name = "petclinic.import.file")
+class OwnerImportRunner implements ApplicationRunner {
+
+	private static final Logger logger = LoggerFactory.getLogger(OwnerImportRunner.class);
+
+	private final OwnerImporter importer;
+
+	private final ObjectMapper objectMapper;
+
+	private final Path file;
+
+	OwnerImportRunner(OwnerImporter importer, ObjectMapper objectMapper,
+			@Value("${petclinic.import.file}") Path file) {
+		this.importer = importer;
+		this.objectMapper = objectMapper;
+		this.file = file;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		logger.info("Importing owners from {}", this.file);
+		try (Reader input = Files.newBufferedReader(this.file, StandardCharsets.UTF_8);
+				OwnerImportReader reader = OwnerImportReader.forFormat(this.file.getFileName().toString(), input,
+						this.objectMapper)) {
+			OwnerImportReport report = this.importer.importOwners(reader);
+			report.getRejections()
+				.forEach(rejection -> logger.warn("Rejected line {}: {}", rejection.line(), rejection.reason()));
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ValidationUtils;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import jakarta.validation.Validator;
+
+// Importiert Besitzer mit Haustieren und Besuchen aus einem OwnerImportReader
+// Die Datensätze werden einzeln gelesen und validiert und in Blöcken (petclinic.import.chunk-size) je einer
+// Transaktion gespeichert; ungültige Datensätze werden abgelehnt, ohne den Import abzubrechen
+@Component
+class OwnerImporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(OwnerImporter.class);
+
+	private final OwnerRepository owners;
+
+	private final PetTypeRegistry petTypes;
+
+	// Bean Validation von Owner und Visit, wie bei den Formularen
+	private final SpringValidatorAdapter validator;
+
+	private final TransactionTemplate transactions;
+
+	// Anzahl der Besitzer pro Transaktion
+	private final int chunkSize;
+
+	OwnerImporter(OwnerRepository owners, PetTypeRegistry petTypes, Validator validator,
+			PlatformTransactionManager transactionManager, @Value("${petclinic.import.chunk-size:500}") int chunkSize) {
+		this.owners = owners;
+		this.petTypes = petTypes;
+		this.validator = new SpringValidatorAdapter(validator);
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+	}
+
+	// Liest alle Datensätze und speichert die gültigen; liefert den Bericht
+	OwnerImportReport importOwners(OwnerImportReader reader) throws IOException {
+		OwnerImportReport report = new OwnerImportReport();
+		long start = System.nanoTime();
+		List<Line> chunk = new ArrayList<>(this.chunkSize);
+		while (true) {
+			OwnerImportRecord record;
+			try {
+				record = reader.next();
+			}
+			catch (OwnerImportReader.InvalidRecordException ex) {
+				report.rejected(ex.getLine(), ex.getMessage());
+				continue;
+			}
+			if (record == null) {
+				break;
+			}
+			String error = validate(record);
+			if (error != null) {
+				report.rejected(reader.line(), error);
+				continue;
+			}
+			chunk.add(new Line(reader.line(), record));
+			if (chunk.size() == this.chunkSize) {
+				store(chunk, report);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			store(chunk, report);
+		}
+		report.finished((System.nanoTime() - start) / 1_000_000);
+		logger.info("Import finished: {} owners, {} pets, {} visits, {} rejected in {} ms ({} rows/s)",
+				report.getOwners(), report.getPets(), report.getVisits(), report.getRejected(), report.getMillis(),
+				report.getRowsPerSecond());
+		return report;
+	}
+
+	// Speichert einen Block in einer Transaktion; schlägt sie fehl, wird jeder Besitzer einzeln versucht,
+	// damit nur die tatsächlich fehlerhaften Datensätze abgelehnt werden, gleich welche Ausnahme sie auslösen
+	// Jeder Besitzer ist neu: owners.save leert daher keinen Cache (siehe OwnerSavingImpl)
+	private void store(List<Line> chunk, OwnerImportReport report) {
+		long start = System.nanoTime();
+		try {
+			this.transactions.executeWithoutResult(status -> chunk.forEach(line -> this.owners.save(toOwner(line.record()))));
+			chunk.forEach(line -> report.imported(line.record()));
+		}
+		catch (RuntimeException ex) {
+			for (Line line : chunk) {
+				try {
+					this.transactions.executeWithoutResult(status -> this.owners.save(toOwner(line.record())));
+					report.imported(line.record());
+				}
+				catch (RuntimeException single) {
+					report.rejected(line.number(), NestedExceptionUtils.getMostSpecificCause(single).getMessage());
+				}
+			}
+		}
+		report.chunkStored();
+		long nanos = Math.max(System.nanoTime() - start, 1);
+		int rows = chunk.stream().mapToInt(line -> line.record().rows()).sum();
+		logger.info("Import chunk {} up to line {}: {} rows in {} ms ({} rows/s), {} owners so far, {} rejected",
+				report.getChunks(), chunk.get(chunk.size() - 1).number(), rows, nanos / 1_000_000,
+				rows * 1_000_000_000L / nanos, report.getOwners(), report.getRejected());
+	}
+
+	// Prüft den Datensatz mit denselben Regeln wie die Formulare; liefert die Fehler oder null
+	private String validate(OwnerImportRecord record) {
+		Owner owner = toOwner(record);
+		Errors errors = new BeanPropertyBindingResult(owner, "owner");
+		this.validator.validate(owner, errors);
+		for (int i = 0; i < owner.getPets().size(); i++) {
+			Pet pet = owner.getPets().get(i);
+			OwnerImportRecord.PetRecord petRecord = record.pets().get(i);
+			errors.pushNestedPath("pets[" + i + "]");
+			if (StringUtils.hasText(petRecord.type()) && pet.getType() == null) {
+				errors.rejectValue("type", "unknown", "unknown pet type '" + petRecord.type() + "'");
+			}
+			if (StringUtils.hasText(pet.getName()) && owner.getPets().indexOf(owner.getPet(pet.getName())) != i) {
+				errors.rejectValue("name", "duplicate", "already exists");
+			}
+			ValidationUtils.invokeValidator(new PetValidator(), pet, errors);
+			int visit = 0;
+			for (Visit each : pet.getVisits()) {
+				errors.pushNestedPath("visits[" + visit++ + "]");
+				this.validator.validate(each, errors);
+				errors.popNestedPath();
+			}
+			errors.popNestedPath();
+		}
+		if (!errors.hasErrors()) {
+			return null;
+		}
+		// Je Feld nur der erste Fehler, z.B. "unbekannte Art" statt zusätzlich "required"
+		Map<String, String> messages = new LinkedHashMap<>();
+		errors.getFieldErrors().forEach(error -> messages.putIfAbsent(error.getField(), error.getDefaultMessage()));
+		return messages.entrySet()
+			.stream()
+			.map(entry -> entry.getKey() + ": " + entry.getValue())
+			.collect(Collectors.joining(", "));
+	}
+
+	// Baut aus dem Datensatz ein neues Owner-Aggregat; die Haustierart kommt aus der PetTypeRegistry
+	private Owner toOwner(OwnerImportRecord record) {
+		Owner owner = new Owner();
+		owner.setFirstName(record.firstName());
+		owner.setLastName(record.lastName());
+		owner.setAddress(record.address());
+		owner.setCity(record.city());
+		owner.setTelephone(record.telephone());
+		for (OwnerImportRecord.PetRecord petRecord : record.pets()) {
+			Pet pet = new Pet();
+			pet.setName(petRecord.name());
+			pet.setBirthDate(petRecord.birthDate());
+			pet.setType(petRecord.type() == null ? null : this.petTypes.findByName(petRecord.type()));
+			for (OwnerImportRecord.VisitRecord visitRecord : petRecord.visits()) {
+				Visit visit = new Visit();
+				if (visitRecord.date() != null) {
+					visit.setDate(visitRecord.date());
+				}
+				visit.setDescription(visitRecord.description());
+				pet.addVisit(visit);
+			}
+			owner.addPet(pet);
+		}
+		return owner;
+	}
+
+	// Ein gültiger Datensatz mit der Zeile, an der er beginnt
+	private record Line(long number, OwnerImportRecord record) {
+	}
+
+}
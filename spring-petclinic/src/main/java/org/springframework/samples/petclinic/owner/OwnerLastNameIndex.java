@@ -0,0 +1,339 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Pakete
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty; // Bean nur bei aktivierter Eigenschaft
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+// Optionaler, prozessinterner Index über (Nachname, Besitzer-ID) für die Präfixsuche nach Besitzern
+// Die Einträge liegen sortiert in zwei parallelen Arrays; Präfix-Abfragen und Zählungen sind damit
+// zwei Binärsuchen, und die Datenbank wird nur noch für die Besitzer der angezeigten Seite gefragt
+// Groß-/Kleinschreibung wird wie bei der Spalte VARCHAR_IGNORECASE (H2) bzw. der MySQL-Collation ignoriert
+// Änderungen dieser Instanz kommen über den OwnerLastNameIndexListener, geänderte Besitzer anderer Instanzen über
+// CacheInvalidation-Events; neue Besitzer anderer Instanzen werden nicht verteilt und erst beim periodischen Neuaufbau
+// sichtbar (siehe Refresh)
+@Component
+@ConditionalOnProperty(name = "petclinic.owner-index.enabled", havingValue = "true")
+class OwnerLastNameIndex {
+
+	// Zum Laden aller (id, last_name)-Paare beim Aufbau und einzelner Besitzer nach Invalidierungen
+	private final JdbcTemplate jdbcTemplate;
+
+	// Viele parallele Leser, seltene Schreiber (Speichern eines Besitzers)
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Es läuft höchstens ein Aufbau zur Zeit (Start, Datengenerator, Invalidierung aller Besitzer, Refresh)
+	private final Lock buildLock = new ReentrantLock();
+
+	// Zählt jede Änderung; unter der Schreibsperre verändert
+	private volatile long generation;
+
+	// Änderungen, die während eines Aufbaus eingehen (ID -> Nachname, null = entfernt); der Aufbau liest die Tabelle
+	// ohne Sperre und wendet sie danach erneut an, damit kein gleichzeitig festgeschriebener Besitzer verloren geht
+	private Map<Integer, String> changedDuringBuild;
+
+	// Sortierte, kleingeschriebene Nachnamen; an gleicher Position steht die zugehörige Besitzer-ID
+	private String[] names = new String[0];
+
+	private int[] ids = new int[0];
+
+	// Anzahl der belegten Einträge in den Arrays
+	private int size;
+
+	// Aktueller Schlüssel je Besitzer, um alte Einträge bei Namensänderungen zu finden
+	private final Map<Integer, String> keysById = new HashMap<>();
+
+	// Erst nach dem vollständigen Aufbau beantwortet der Index Abfragen
+	private volatile boolean ready;
+
+	OwnerLastNameIndex(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	// Baut den Index nach dem Start auf, wenn Schema und Daten initialisiert sind
+	@EventListener(ContextRefreshedEvent.class)
+	void build() {
+		this.buildLock.lock();
+		try {
+			this.lock.writeLock().lock();
+			try {
+				this.changedDuringBuild = new HashMap<>();
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+			List<Object[]> rows = new ArrayList<>();
+			try {
+				this.jdbcTemplate.query("SELECT id, last_name FROM owners",
+						rs -> {
+							rows.add(new Object[] { rs.getInt(1), rs.getString(2) });
+						});
+			}
+			catch (RuntimeException ex) {
+				// Der bisherige Index bleibt bestehen, er hat alle Änderungen bereits übernommen
+				stopRecording();
+				throw ex;
+			}
+			this.lock.writeLock().lock();
+			try {
+				Map<Integer, String> changes = stopRecording();
+				this.keysById.clear();
+				this.names = new String[0];
+				this.ids = new int[0];
+				this.size = 0;
+				rebuild(rows);
+				// Was während des Lesens festgeschrieben wurde, kann der Abfrage entgangen sein
+				changes.forEach((id, key) -> {
+					removeEntry(id);
+					if (key != null) {
+						insertEntry(id, key);
+					}
+				});
+				this.generation++;
+				this.ready = true;
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+		finally {
+			this.buildLock.unlock();
+		}
+	}
+
+	private Map<Integer, String> stopRecording() {
+		this.lock.writeLock().lock();
+		try {
+			Map<Integer, String> changes = this.changedDuringBuild;
+			this.changedDuringBuild = null;
+			return changes;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	// Eine andere Instanz hat einen Besitzer geändert oder gelöscht (siehe CacheInvalidationBus): seinen Nachnamen neu
+	// lesen; eine Invalidierung aller Besitzer baut den Index neu auf
+	@EventListener(condition = "#invalidation.covers(T(org.springframework.samples.petclinic.owner.OwnerRepository).OWNERS_CACHE)")
+	void invalidated(CacheInvalidation invalidation) {
+		if (invalidation.key() == null) {
+			build();
+		}
+		else {
+			reload(invalidation.key());
+		}
+	}
+
+	// Ob der Index aufgebaut ist und Abfragen beantworten kann
+	boolean isReady() {
+		return this.ready;
+	}
+
+	// Fügt einen Besitzer ein oder aktualisiert seinen Nachnamen
+	void put(int id, String lastName) {
+		this.lock.writeLock().lock();
+		try {
+			change(id, key(lastName));
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	// Entfernt einen Besitzer aus dem Index
+	void remove(int id) {
+		this.lock.writeLock().lock();
+		try {
+			change(id, null);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	// Liest den Nachnamen eines Besitzers aus der Datenbank; gelesen wird ohne Sperre, übernommen nur, wenn sich der
+	// Index seitdem nicht geändert hat, sonst könnte ein älterer Stand eine gleichzeitige Änderung überschreiben
+	private void reload(int id) {
+		while (true) {
+			long generation = this.generation;
+			List<String> lastNames = this.jdbcTemplate.queryForList("SELECT last_name FROM owners WHERE id = ?",
+					String.class, id);
+			this.lock.writeLock().lock();
+			try {
+				if (this.generation == generation) {
+					change(id, lastNames.isEmpty() ? null : key(lastNames.get(0)));
+					return;
+				}
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+	}
+
+	// Ersetzt oder entfernt (key null) den Eintrag eines Besitzers; nur unter der Schreibsperre
+	private void change(int id, String key) {
+		removeEntry(id);
+		if (key != null) {
+			insertEntry(id, key);
+		}
+		if (this.changedDuringBuild != null) {
+			this.changedDuringBuild.put(id, key);
+		}
+		this.generation++;
+	}
+
+	// Zählt die Besitzer, deren Nachname mit dem Präfix beginnt
+	int count(String prefix) {
+		String key = key(prefix);
+		this.lock.readLock().lock();
+		try {
+			return upperBound(key) - lowerBound(key, Integer.MIN_VALUE);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	// Liefert die IDs einer Seite der Treffer, sortiert nach (Nachname, ID)
+	List<Integer> find(String prefix, long offset, int limit) {
+		String key = key(prefix);
+		this.lock.readLock().lock();
+		try {
+			int to = upperBound(key);
+			int from = (int) Math.min(lowerBound(key, Integer.MIN_VALUE) + offset, to);
+			int end = (int) Math.min((long) from + limit, to);
+			List<Integer> page = new ArrayList<>(end - from);
+			for (int i = from; i < end; i++) {
+				page.add(this.ids[i]);
+			}
+			return page;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	// Füllt den leeren Index in einem Schritt: sortieren statt einzeln einfügen
+	private void rebuild(List<Object[]> rows) {
+		Object[][] entries = rows.toArray(new Object[0][]);
+		for (Object[] entry : entries) {
+			entry[1] = key((String) entry[1]);
+		}
+		Arrays.sort(entries, (a, b) -> compare((String) a[1], (int) a[0], (String) b[1], (int) b[0]));
+		this.names = new String[Math.max(16, entries.length)];
+		this.ids = new int[this.names.length];
+		for (Object[] entry : entries) {
+			this.names[this.size] = (String) entry[1];
+			this.ids[this.size] = (int) entry[0];
+			this.keysById.put((int) entry[0], (String) entry[1]);
+			this.size++;
+		}
+	}
+
+	private void insertEntry(int id, String key) {
+		int position = lowerBound(key, id);
+		if (this.size == this.names.length) {
+			int capacity = Math.max(16, this.size * 2);
+			this.names = Arrays.copyOf(this.names, capacity);
+			this.ids = Arrays.copyOf(this.ids, capacity);
+		}
+		System.arraycopy(this.names, position, this.names, position + 1, this.size - position);
+		System.arraycopy(this.ids, position, this.ids, position + 1, this.size - position);
+		this.names[position] = key;
+		this.ids[position] = id;
+		this.size++;
+		this.keysById.put(id, key);
+	}
+
+	private void removeEntry(int id) {
+		String key = this.keysById.remove(id);
+		if (key == null) {
+			return;
+		}
+		int position = lowerBound(key, id);
+		System.arraycopy(this.names, position + 1, this.names, position, this.size - position - 1);
+		System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+		this.size--;
+		this.names[this.size] = null;
+	}
+
+	// Erste Position, deren Eintrag nicht kleiner als (key, id) ist
+	private int lowerBound(String key, int id) {
+		int low = 0;
+		int high = this.size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(this.names[mid], this.ids[mid], key, id) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// Erste Position, deren Nachname nicht mehr mit dem Präfix beginnt
+	private int upperBound(String prefix) {
+		return lowerBound(prefix + Character.MAX_VALUE, Integer.MIN_VALUE);
+	}
+
+	private static int compare(String name1, int id1, String name2, int id2) {
+		int result = name1.compareTo(name2);
+		return result != 0 ? result : Integer.compare(id1, id2);
+	}
+
+	private static String key(String lastName) {
+		return lastName == null ? "" : lastName.toLowerCase(Locale.ROOT);
+	}
+
+	// Mit dem JDBC-Bus teilen sich mehrere Instanzen die Datenbank; neue Besitzer einer anderen Instanz werden nicht
+	// verteilt (siehe OwnerSavingImpl), daher baut jede Instanz ihren Index im Abstand refresh-interval neu auf
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnExpression("${petclinic.owner-index.enabled:false} and '${petclinic.cache.invalidation.bus:none}' == 'jdbc'")
+	@EnableScheduling
+	static class Refresh implements SchedulingConfigurer {
+
+		private final OwnerLastNameIndex index;
+
+		private final Duration interval;
+
+		Refresh(OwnerLastNameIndex index,
+				@Value("${petclinic.owner-index.refresh-interval:5m}") Duration interval) {
+			this.index = index;
+			this.interval = interval;
+		}
+
+		@Override
+		public void configureTasks(ScheduledTaskRegistrar registrar) {
+			// Der erste Aufbau läuft beim Start (ContextRefreshedEvent)
+			registrar.addFixedDelayTask(new FixedDelayTask(this.index::build, this.interval, this.interval));
+		}
+
+	}
+
+}
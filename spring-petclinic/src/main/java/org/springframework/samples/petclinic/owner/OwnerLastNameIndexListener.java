@@ -0,0 +1,36 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.samples.petclinic.system.TransactionCallbacks;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA-Entity-Listener, der den OwnerLastNameIndex inkrementell nachführt
+// Wird von Hibernate über den Spring-Bean-Container erzeugt; ist der Index deaktiviert, passiert nichts
+class OwnerLastNameIndexListener {
+
+	private final ObjectProvider<OwnerLastNameIndex> index;
+
+	OwnerLastNameIndexListener(ObjectProvider<OwnerLastNameIndex> index) {
+		this.index = index;
+	}
+
+	// Neuer oder geänderter Besitzer: Eintrag nach erfolgreichem Commit einfügen bzw. ersetzen
+	// Ein Rollback darf den Index nicht verändern
+	@PostPersist
+	@PostUpdate
+	void ownerSaved(Owner owner) {
+		this.index.ifAvailable(ownerIndex -> TransactionCallbacks
+			.afterCommit(() -> ownerIndex.put(owner.getId(), owner.getLastName())));
+	}
+
+	// Gelöschter Besitzer: Eintrag nach erfolgreichem Commit entfernen
+	@PostRemove
+	void ownerRemoved(Owner owner) {
+		this.index.ifAvailable(ownerIndex -> TransactionCallbacks.afterCommit(() -> ownerIndex.remove(owner.getId())));
+	}
+
+}
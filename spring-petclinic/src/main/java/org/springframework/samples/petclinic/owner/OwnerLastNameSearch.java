@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+// Repository-Fragment für die Präfixsuche nach Nachnamen
+// Die Implementierung beantwortet die Suche aus dem OwnerLastNameIndex, wenn dieser aktiviert ist,
+// und fällt sonst auf die Abfragen gegen die Datenbank zurück
+public interface OwnerLastNameSearch {
+
+	// Gibt eine Seite von Besitzern zurück, deren Nachname mit dem gegebenen Parameter beginnt
+	@Transactional(readOnly = true)
+	Page<Owner> findByLastName(String lastName, Pageable pageable);
+
+	// Projektion für die Besitzerliste: liest nur die Spalten, die ownersList.html anzeigt
+	@Transactional(readOnly = true)
+	Page<OwnerListRow> findListRowsByLastName(String lastName, Pageable pageable);
+
+}
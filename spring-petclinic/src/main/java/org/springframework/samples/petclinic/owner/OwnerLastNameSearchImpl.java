@@ -0,0 +1,91 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Pakete
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter; // Maskiert % und _ im Suchbegriff
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+// Implementierung des Fragments OwnerLastNameSearch (wird von Spring Data über das Suffix "Impl" gefunden)
+class OwnerLastNameSearchImpl implements OwnerLastNameSearch {
+
+	// Suche ohne Join auf die Haustiere, damit weder DISTINCT noch eine teure Zählung nötig sind
+	private static final String SEARCH = "SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastName ESCAPE '\\'";
+
+	private static final String SEARCH_ROWS = "SELECT new org.springframework.samples.petclinic.owner.OwnerListRow("
+			+ "owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone) "
+			+ "FROM Owner owner WHERE owner.lastName LIKE :lastName ESCAPE '\\'";
+
+	private static final String COUNT = "SELECT count(owner) FROM Owner owner WHERE owner.lastName LIKE :lastName ESCAPE '\\'";
+
+	// Hydriert genau die Besitzer einer Seite, deren IDs der Index geliefert hat
+	private static final String BY_IDS = "SELECT owner FROM Owner owner WHERE owner.id IN :ids";
+
+	private static final String ROWS_BY_IDS = "SELECT new org.springframework.samples.petclinic.owner.OwnerListRow("
+			+ "owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone) "
+			+ "FROM Owner owner WHERE owner.id IN :ids";
+
+	private final EntityManager entityManager;
+
+	// Der Index ist optional (petclinic.owner-index.enabled)
+	private final ObjectProvider<OwnerLastNameIndex> index;
+
+	OwnerLastNameSearchImpl(EntityManager entityManager, ObjectProvider<OwnerLastNameIndex> index) {
+		this.entityManager = entityManager;
+		this.index = index;
+	}
+
+	@Override
+	public Page<Owner> findByLastName(String lastName, Pageable pageable) {
+		return search(lastName, pageable, Owner.class, SEARCH, BY_IDS, Owner::getId);
+	}
+
+	@Override
+	public Page<OwnerListRow> findListRowsByLastName(String lastName, Pageable pageable) {
+		return search(lastName, pageable, OwnerListRow.class, SEARCH_ROWS, ROWS_BY_IDS, OwnerListRow::getId);
+	}
+
+	private <T> Page<T> search(String lastName, Pageable pageable, Class<T> type, String search, String byIds,
+			Function<T, Integer> id) {
+		Pageable page = pageable == null ? Pageable.unpaged() : pageable;
+		OwnerLastNameIndex ownerIndex = this.index.getIfAvailable();
+		if (ownerIndex != null && ownerIndex.isReady()) {
+			// Treffer und Gesamtzahl kommen aus dem Index, die Datenbank liest nur die Zeilen dieser Seite
+			List<Integer> ids = page.isPaged() ? ownerIndex.find(lastName, page.getOffset(), page.getPageSize())
+					: ownerIndex.find(lastName, 0, Integer.MAX_VALUE);
+			Map<Integer, Integer> positions = new HashMap<>();
+			for (int i = 0; i < ids.size(); i++) {
+				positions.put(ids.get(i), i);
+			}
+			List<T> content = ids.isEmpty() ? List.of()
+					: this.entityManager.createQuery(byIds, type)
+						.setParameter("ids", ids)
+						.getResultStream()
+						.sorted(Comparator.comparing(row -> positions.get(id.apply(row))))
+						.toList();
+			return new PageImpl<>(content, page, ownerIndex.count(lastName));
+		}
+
+		String pattern = EscapeCharacter.DEFAULT.escape(lastName) + "%";
+		TypedQuery<T> query = this.entityManager.createQuery(search, type).setParameter("lastName", pattern);
+		if (page.isPaged()) {
+			query.setFirstResult((int) page.getOffset()).setMaxResults(page.getPageSize());
+		}
+		return PageableExecutionUtils.getPage(query.getResultList(), page,
+				() -> this.entityManager.createQuery(COUNT, Long.class)
+					.setParameter("lastName", pattern)
+					.getSingleResult());
+	}
+
+}
@@ -0,0 +1,94 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Schlanke, unveränderliche Zeile der Besitzerliste (ownersList.html)
+// Enthält nur die Spalten, die die Liste anzeigt, statt des ganzen Owner-Aggregats
+public class OwnerListRow {
+
+	private final Integer id;
+
+	private final String firstName;
+
+	private final String lastName;
+
+	private final String address;
+
+	private final String city;
+
+	private final String telephone;
+
+	// Namen der Haustiere, werden mit einer separaten Abfrage für die ganze Seite ergänzt
+	private final List<String> pets;
+
+	// Konstruktor für die JPQL-Projektion (SELECT new ...), noch ohne Haustiere
+	public OwnerListRow(Integer id, String firstName, String lastName, String address, String city, String telephone) {
+		this(id, firstName, lastName, address, city, telephone, List.of());
+	}
+
+	// Vollständiger Konstruktor
+	public OwnerListRow(Integer id, String firstName, String lastName, String address, String city, String telephone,
+			List<String> pets) {
+		this.id = id;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.address = address;
+		this.city = city;
+		this.telephone = telephone;
+		this.pets = List.copyOf(pets);
+	}
+
+	// Baut die Zeile aus einem Besitzer (Keyset-Modus), noch ohne Haustiere
+	static OwnerListRow of(Owner owner) {
+		return new OwnerListRow(owner.getId(), owner.getFirstName(), owner.getLastName(), owner.getAddress(),
+				owner.getCity(), owner.getTelephone());
+	}
+
+	// Ergänzt die Zeilen einer Listenseite mit einer einzigen Abfrage um die Namen ihrer Haustiere
+	static List<OwnerListRow> withPetNames(List<OwnerListRow> rows, OwnerRepository owners) {
+		List<Integer> ownerIds = rows.stream().map(OwnerListRow::getId).toList();
+		Map<Integer, List<String>> petNames = new HashMap<>();
+		for (Object[] pair : owners.findPetNamesByOwnerIds(ownerIds)) {
+			petNames.computeIfAbsent((Integer) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+		}
+		return rows.stream().map(row -> row.withPets(petNames.getOrDefault(row.getId(), List.of()))).toList();
+	}
+
+	// Gibt eine Kopie dieser Zeile mit den gegebenen Haustiernamen zurück
+	public OwnerListRow withPets(List<String> pets) {
+		return new OwnerListRow(this.id, this.firstName, this.lastName, this.address, this.city, this.telephone, pets);
+	}
+
+	public Integer getId() {
+		return this.id;
+	}
+
+	public String getFirstName() {
+		return this.firstName;
+	}
+
+	public String getLastName() {
+		return this.lastName;
+	}
+
+	public String getAddress() {
+		return this.address;
+	}
+
+	public String getCity() {
+		return this.city;
+	}
+
+	public String getTelephone() {
+		return this.telephone;
+	}
+
+	public List<String> getPets() {
+		return this.pets;
+	}
+
+}
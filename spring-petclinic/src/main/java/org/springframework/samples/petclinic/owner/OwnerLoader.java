@@ -0,0 +1,100 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.annotation.RequestScope;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Lädt Besitzer höchstens einmal pro HTTP-Anfrage
+// Mehrere @ModelAttribute-Methoden derselben Anfrage (z.B. findOwner und findPet im PetController)
+// teilen sich so ein geladenes Owner-Aggregat, statt jeweils erneut findById auszuführen
+// Lesende Anfragen (GET, HEAD) bekommen eine Kopie aus dem OwnerCache; Anfragen, die schreiben, laden den Besitzer
+// aus der Datenbank, damit gebundene Formulardaten auf den aktuellen, verwalteten Entitäten landen
+// Ohne Cache wird ebenfalls vom Primärsystem gelesen, sonst sähe die Weiterleitung nach dem Speichern den Rückstand des
+// Replikats (siehe ReplicaDataSourceConfiguration)
+@Component
+@RequestScope
+class OwnerLoader {
+
+	// Repository zum Laden der Besitzer
+	private final OwnerRepository owners;
+
+	// Cache der Owner-Aggregate; optional (petclinic.cache.owners.enabled)
+	private final ObjectProvider<OwnerCache> cache;
+
+	// Bewusst nicht schreibgeschützt, wie im OwnerCache: Lesen nach eigenem Schreiben geht an das Primärsystem
+	private final TransactionTemplate transactions;
+
+	// Ob die Anfrage nur liest
+	private final boolean readOnly;
+
+	// Bereits geladene Besitzer dieser Anfrage; auch "nicht gefunden" (null) wird gemerkt
+	private final Map<Integer, Owner> loaded = new HashMap<>();
+
+	@Autowired
+	OwnerLoader(OwnerRepository owners, ObjectProvider<OwnerCache> cache, PlatformTransactionManager transactionManager,
+			HttpServletRequest request) {
+		this(owners, cache, transactionManager,
+				"GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()));
+	}
+
+	private OwnerLoader(OwnerRepository owners, ObjectProvider<OwnerCache> cache,
+			PlatformTransactionManager transactionManager, boolean readOnly) {
+		this.owners = owners;
+		this.cache = cache;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.readOnly = readOnly;
+	}
+
+	// Lesender Loader außerhalb einer HTTP-Anfrage, z.B. für die JSON-API, die im ApiExecutor läuft
+	static OwnerLoader forReading(OwnerRepository owners, ObjectProvider<OwnerCache> cache,
+			PlatformTransactionManager transactionManager) {
+		return new OwnerLoader(owners, cache, transactionManager, true);
+	}
+
+	// Liefert den Besitzer mit Haustieren; null, wenn es ihn nicht gibt
+	Owner load(int ownerId) {
+		if (!this.loaded.containsKey(ownerId)) {
+			OwnerCache ownerCache = this.readOnly ? this.cache.getIfAvailable() : null;
+			this.loaded.put(ownerId, ownerCache != null ? ownerCache.get(ownerId)
+					: this.transactions.execute(status -> this.owners.findById(ownerId)));
+		}
+		return this.loaded.get(ownerId);
+	}
+
+	// Liefert die fertige Lesesicht samt Besuchen für Detailseite und Besuchsformular; null, wenn es den Besitzer nicht gibt
+	// Der OwnerCache hält die Lesesicht fertig vor; sonst werden die Besuche für alle Haustiere mit einer Abfrage gelesen,
+	// da die Session ohne Open Session in View nach dem Laden des Besitzers bereits geschlossen ist
+	OwnerDetails loadDetails(int ownerId) {
+		OwnerCache ownerCache = this.readOnly ? this.cache.getIfAvailable() : null;
+		if (ownerCache != null) {
+			return ownerCache.details(ownerId);
+		}
+		Owner owner = load(ownerId);
+		if (owner == null) {
+			return null;
+		}
+		if (owner.getPets().stream().allMatch(pet -> Hibernate.isInitialized(pet.getVisits()))) {
+			return OwnerDetails.of(owner, Pet::getVisits);
+		}
+		List<Integer> petIds = owner.getPets().stream().map(Pet::getId).toList();
+		Map<Integer, List<Visit>> visits = new HashMap<>();
+		List<Object[]> pairs = this.transactions.execute(status -> this.owners.findVisitsByPetIds(petIds));
+		for (Object[] pair : pairs) {
+			visits.computeIfAbsent((Integer) pair[0], id -> new ArrayList<>()).add((Visit) pair[1]);
+		}
+		return OwnerDetails.of(owner, pet -> visits.getOrDefault(pet.getId(), List.of()));
+	}
+
+}
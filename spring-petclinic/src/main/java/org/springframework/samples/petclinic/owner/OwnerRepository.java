@@ -1,37 +1,77 @@
 package org.springframework.samples.petclinic.owner;
 
 // Importiert benötigte Klassen für die Arbeit mit Datenbanken und JPA-Repositories
+import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.jpa.AvailableHints; // Hibernate-spezifische Query-Hinweise
+import org.springframework.data.domain.Limit; // Begrenzt die Anzahl der gelesenen Zeilen
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition; // Cursor-Position für die Keyset-Paginierung
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window; // Ergebnisfenster der Keyset-Paginierung
+import org.springframework.data.jpa.repository.EntityGraph; // Wendet einen benannten Fetch-Plan an
 import org.springframework.data.jpa.repository.Query; // Ermöglicht benutzerdefinierte JPQL-Abfragen
+import org.springframework.data.jpa.repository.QueryHints; // Übergibt Hinweise wie den Query-Cache an Hibernate
 import org.springframework.data.repository.Repository; // Basisinterface für Repositories
 import org.springframework.data.repository.query.Param; // Ermöglicht benannte Parameter in Abfragen
 import org.springframework.transaction.annotation.Transactional; // Verwaltung von Datenbanktransaktionen
 
+import jakarta.persistence.QueryHint;
+
 // Definiert ein Repository-Interface für die Entität "Owner" mit der primären Schlüsselklasse "Integer"
-public interface OwnerRepository extends Repository<Owner, Integer> {
+public interface OwnerRepository extends Repository<Owner, Integer>, OwnerLastNameSearch, OwnerSaving {
+
+    // Cache-Region der Owner-Aggregate für lesende Seiten (siehe OwnerCache)
+    String OWNERS_CACHE = "owners";
 
     // Definiert eine JPQL-Abfrage, um alle PetTypes (Haustierarten) sortiert nach Namen zu finden
+    // Das Ergebnis liegt im Query-Cache, die Haustierarten selbst im Second-Level-Cache
     @Query("SELECT ptype FROM PetType ptype ORDER BY ptype.name")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Transactional(readOnly = true) // Kennzeichnet die Methode als schreibgeschützt (keine Datenänderungen)
     List<PetType> findPetTypes(); // Methode, die eine Liste von PetType zurückgibt
 
-    // Definiert eine JPQL-Abfrage, um Besitzer anhand des Nachnamens zu finden, mit Unterstützung für Paginierung
-    @Query("SELECT DISTINCT owner FROM Owner owner left join owner.pets WHERE owner.lastName LIKE :lastName%")
+    // Die Präfixsuche nach Nachnamen (findByLastName, findListRowsByLastName) stammt aus dem Fragment
+    // OwnerLastNameSearch, das optional den In-Memory-Index OwnerLastNameIndex verwendet
+
+    // Liest die Haustiernamen aller Besitzer einer Listenseite in einer Abfrage als Paare (ownerId, name)
+    @Query("SELECT owner.id, pet.name FROM Owner owner JOIN owner.pets pet WHERE owner.id IN :ownerIds ORDER BY pet.name")
     @Transactional(readOnly = true)
-    Page<Owner> findByLastName(@Param("lastName") String lastName, Pageable pageable);
-    // Die Methode gibt eine Seite von Besitzern zurück, deren Nachname mit dem gegebenen Parameter beginnt
+    List<Object[]> findPetNamesByOwnerIds(@Param("ownerIds") Collection<Integer> ownerIds);
+
+    // Liest die Besuche mehrerer Haustiere in einer Abfrage als Paare (petId, visit), sortiert nach Datum
+    // Für Lesesichten (OwnerDetails), deren Besitzer ohne Besuche und außerhalb einer offenen Session geladen wurde
+    @Query("SELECT pet.id, visit FROM Pet pet JOIN pet.visits visit WHERE pet.id IN :petIds ORDER BY visit.date")
+    @Transactional(readOnly = true)
+    List<Object[]> findVisitsByPetIds(@Param("petIds") Collection<Integer> petIds);
+
+    // Keyset-Paginierung: liest ab einer Cursor-Position (last_name, id) ohne OFFSET und ohne count(*)
+    @Transactional(readOnly = true)
+    Window<Owner> findByLastNameStartingWith(String lastName, ScrollPosition position, Sort sort, Limit limit);
+
+    // Günstige Zählung für den Keyset-Modus: zählt höchstens 'cap' Treffer statt aller Besitzer
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM owners WHERE last_name LIKE CONCAT(:lastName, '%') LIMIT :cap) capped",
+            nativeQuery = true)
+    @Transactional(readOnly = true)
+    long countByLastNameUpTo(@Param("lastName") String lastName, @Param("cap") int cap);
 
     // Definiert eine JPQL-Abfrage, um einen Besitzer anhand seiner ID zu finden und lädt gleichzeitig seine Haustiere
-    @Query("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id")
+    @Query("SELECT owner FROM Owner owner WHERE owner.id =:id")
+    @EntityGraph(Owner.PETS_GRAPH)
     @Transactional(readOnly = true)
     Owner findById(@Param("id") Integer id);
-    // Die Methode gibt einen einzelnen Owner zurück, wobei die Haustiere bereits geladen sind (Fetch Join)
+    // Die Methode gibt einen einzelnen Owner samt Haustieren und deren Typ zurück (Fetch-Plan "Owner.pets")
+    // Haustier-Formulare kommen damit mit einer Abfrage aus; Detailseite und Besuchsformular laden
+    // die Besuche bei Bedarf mit genau einer weiteren Abfrage für alle Haustiere nach
+
+    // Liest nur die Zeile des Besitzers, ohne Haustiere (z. B. für das Speichern eines Haustiers über PetRepository)
+    @Query("SELECT owner FROM Owner owner WHERE owner.id = :id")
+    @Transactional(readOnly = true)
+    Owner findWithoutPetsById(@Param("id") Integer id);
 
-    // Speichert einen Besitzer in der Datenbank (kann zum Erstellen oder Aktualisieren verwendet werden)
-    void save(Owner owner);
+    // Das Speichern (save) stammt aus dem Fragment OwnerSaving, das dabei den OwnerCache invalidiert
 
     // Definiert eine JPQL-Abfrage, um alle Besitzer zu finden, mit Unterstützung für Paginierung
     @Query("SELECT owner FROM Owner owner")
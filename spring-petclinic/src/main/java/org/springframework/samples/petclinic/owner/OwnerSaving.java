@@ -0,0 +1,14 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.springframework.transaction.annotation.Transactional;
+
+// Repository-Fragment zum Speichern eines Besitzers samt Haustieren und Besuchen
+// Ersetzt das save() von Spring Data, damit jede Änderung am Aggregat den OwnerCache invalidiert
+public interface OwnerSaving {
+
+	// Speichert einen Besitzer in der Datenbank (kann zum Erstellen oder Aktualisieren verwendet werden)
+	@Transactional
+	void save(Owner owner);
+
+}
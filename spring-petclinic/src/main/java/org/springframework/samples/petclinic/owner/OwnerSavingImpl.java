@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.springframework.beans.factory.ObjectProvider;
+
+import jakarta.persistence.EntityManager;
+
+// Implementierung des Fragments OwnerSaving (wird von Spring Data über das Suffix "Impl" gefunden)
+class OwnerSavingImpl implements OwnerSaving {
+
+	private final EntityManager entityManager;
+
+	// Der Cache ist optional (petclinic.cache.owners.enabled)
+	private final ObjectProvider<OwnerCache> cache;
+
+	OwnerSavingImpl(EntityManager entityManager, ObjectProvider<OwnerCache> cache) {
+		this.entityManager = entityManager;
+		this.cache = cache;
+	}
+
+	// Wie SimpleJpaRepository.save: neue Besitzer werden persistiert, bestehende gemergt
+	// Nur ein bestehender Besitzer kann im Cache liegen; ein neuer kostet so keine Invalidierung (und keinen Eintrag
+	// im CacheInvalidationBus), was bei Import und API-Anlage sonst jede Zeile träfe
+	@Override
+	public void save(Owner owner) {
+		if (owner.isNew()) {
+			this.entityManager.persist(owner);
+		}
+		else {
+			this.entityManager.merge(owner);
+			this.cache.ifAvailable(owners -> owners.evict(owner.getId()));
+		}
+	}
+
+}
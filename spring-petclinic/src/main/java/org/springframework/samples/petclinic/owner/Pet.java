@@ -6,6 +6,8 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.samples.petclinic.model.NamedEntity;
 
@@ -38,9 +40,13 @@ public class Pet extends NamedEntity {
 	private PetType type;
 
 	// Definiert eine Eins-zu-Viele-Beziehung zu 'Visit'
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	// Besuche werden erst bei Zugriff geladen, dann aber für alle Haustiere der Abfrage in einem Subselect
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+	@Fetch(FetchMode.SUBSELECT)
 	// Verknüpft 'visits' über die Fremdschlüsselspalte 'pet_id' in der 'visits'-Tabelle
-	@JoinColumn(name = "pet_id")
+	// nullable/updatable = false: pet_id wird direkt im INSERT des Besuchs gesetzt statt per UPDATE danach,
+	// damit neue Besuche in einem Batch geschrieben werden
+	@JoinColumn(name = "pet_id", nullable = false, updatable = false)
 	// Sortiert die 'visits' nach dem Datum aufsteigend
 	@OrderBy("visit_date ASC")
 	private Set<Visit> visits = new LinkedHashSet<>();
@@ -4,6 +4,8 @@ package org.springframework.samples.petclinic.owner;
 import java.time.LocalDate;
 import java.util.Collection;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
@@ -31,22 +33,38 @@ class PetController {
 	// Repository für Owner-Entitäten, um Datenbankoperationen durchzuführen
 	private final OwnerRepository owners;
 
-	// Konstruktor zur Injektion des OwnerRepository
-	public PetController(OwnerRepository owners) {
+	// Schreibt Haustiere als einzelne Zeile, ohne das Owner-Aggregat zu laden
+	private final PetRepository pets;
+
+	// Zwischengespeichertes Verzeichnis der Haustierarten
+	private final PetTypeRegistry types;
+
+	// Lädt den Besitzer nur einmal pro Anfrage für findOwner und findPet
+	private final OwnerLoader ownerLoader;
+
+	// Konstruktor zur Injektion der Repositories, der PetTypeRegistry und des OwnerLoader
+	public PetController(OwnerRepository owners, PetRepository pets, PetTypeRegistry types, OwnerLoader ownerLoader) {
 			this.owners = owners;
+			this.pets = pets;
+			this.types = types;
+			this.ownerLoader = ownerLoader;
 	}
 
 	// Fügt dem Modell eine Liste von PetType hinzu, um sie in der View zu verwenden
+	// Kommt aus der Registry statt aus einer Abfrage pro Anfrage
 	@ModelAttribute("types")
 	public Collection<PetType> populatePetTypes() {
-			return this.owners.findPetTypes();
+			return this.types.findAll();
 	}
 
 	// Sucht einen Owner basierend auf der ownerId aus dem Pfad und fügt ihn dem Modell hinzu
+	// Die Formulare (GET) brauchen das Aggregat mit den Haustieren; das Speichern (POST) nur den Besitzer selbst,
+	// Namensprüfung und Schreiben laufen über PetRepository in der Datenbank
 	@ModelAttribute("owner")
-	public Owner findOwner(@PathVariable("ownerId") int ownerId) {
+	public Owner findOwner(@PathVariable("ownerId") int ownerId, HttpMethod method) {
 
-			Owner owner = this.owners.findById(ownerId);
+			Owner owner = HttpMethod.POST.equals(method) ? this.owners.findWithoutPetsById(ownerId)
+					: this.ownerLoader.load(ownerId);
 			if (owner == null) {
 					throw new IllegalArgumentException("Owner ID not found: " + ownerId);
 			}
@@ -56,14 +74,22 @@ class PetController {
 	// Sucht ein Pet basierend auf ownerId und optional petId und fügt es dem Modell hinzu
 	@ModelAttribute("pet")
 	public Pet findPet(@PathVariable("ownerId") int ownerId,
-										 @PathVariable(name = "petId", required = false) Integer petId) {
+										 @PathVariable(name = "petId", required = false) Integer petId, HttpMethod method) {
 
 			if (petId == null) {
 					// Erstellt ein neues Pet, wenn keine petId vorhanden ist
 					return new Pet();
 			}
 
-			Owner owner = this.owners.findById(ownerId);
+			if (HttpMethod.POST.equals(method)) {
+					// Das Formular enthält alle Felder, es wird auf ein frisches Pet mit der ID aus dem Pfad gebunden
+					Pet pet = new Pet();
+					pet.setId(petId);
+					return pet;
+			}
+
+			// Derselbe Besitzer wie in findOwner, ohne erneute Abfrage
+			Owner owner = this.ownerLoader.load(ownerId);
 			if (owner == null) {
 					throw new IllegalArgumentException("Owner ID not found: " + ownerId);
 			}
@@ -81,6 +107,8 @@ class PetController {
 	// Initialisiert einen WebDataBinder für Pet-Objekte mit einem Validator
 	@InitBinder("pet")
 	public void initPetBinder(WebDataBinder dataBinder) {
+			// Die ID kommt aus dem Pfad, nicht aus dem versteckten Formularfeld
+			dataBinder.setDisallowedFields("id");
 			// Setzt einen benutzerdefinierten Validator für Pet-Objekte
 			dataBinder.setValidator(new PetValidator());
 	}
@@ -100,8 +128,9 @@ class PetController {
 	@PostMapping("/pets/new")
 	public String processCreationForm(Owner owner, @Valid Pet pet, BindingResult result, ModelMap model,
 																		RedirectAttributes redirectAttributes) {
-		// Überprüft, ob der Name bereits existiert
-		if (StringUtils.hasText(pet.getName()) && pet.isNew() && owner.getPet(pet.getName(), true) != null) {
+		// Überprüft in der Datenbank, ob der Name bereits existiert
+		if (StringUtils.hasText(pet.getName()) && pet.isNew()
+				&& this.pets.existsByOwnerAndName(owner.getId(), pet.getName(), null)) {
 				result.rejectValue("name", "duplicate", "already exists");
 		}
 
@@ -111,15 +140,17 @@ class PetController {
 				result.rejectValue("birthDate", "typeMismatch.birthDate");
 		}
 
-		owner.addPet(pet);
+		// Fügt das neue Pet als einzelne Zeile ein; der eindeutige Index fängt gleichzeitige Anfragen ab
+		if (!result.hasErrors() && !add(owner, pet)) {
+				result.rejectValue("name", "duplicate", "already exists");
+		}
+
 		if (result.hasErrors()) {
 				// Bei Fehlern wird das Formular erneut angezeigt
 				model.put("pet", pet);
 				return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 		}
 
-		// Speichert den Owner und damit auch das neue Pet
-		this.owners.save(owner);
 		// Fügt eine Flash-Nachricht hinzu
 		redirectAttributes.addFlashAttribute("message", "New Pet has been Added");
 		// Weiterleitung zur Owner-Detailseite
@@ -144,12 +175,9 @@ class PetController {
 
 		String petName = pet.getName();
 
-		// Überprüft, ob der Pet-Name bereits existiert und nicht dem aktuellen Pet gehört
-		if (StringUtils.hasText(petName)) {
-				Pet existingPet = owner.getPet(petName.toLowerCase(), false);
-				if (existingPet != null && existingPet.getId() != pet.getId()) {
-						result.rejectValue("name", "duplicate", "already exists");
-				}
+		// Überprüft in der Datenbank, ob der Pet-Name bereits existiert und nicht dem aktuellen Pet gehört
+		if (StringUtils.hasText(petName) && this.pets.existsByOwnerAndName(owner.getId(), petName, pet.getId())) {
+				result.rejectValue("name", "duplicate", "already exists");
 		}
 
 		// Überprüft, ob das Geburtsdatum in der Zukunft liegt
@@ -158,16 +186,45 @@ class PetController {
 				result.rejectValue("birthDate", "typeMismatch.birthDate");
 		}
 
+		// Ändert nur die Zeile des Pets; der eindeutige Index fängt gleichzeitige Anfragen ab
+		if (!result.hasErrors() && !update(owner, pet)) {
+				result.rejectValue("name", "duplicate", "already exists");
+		}
+
 		if (result.hasErrors()) {
 				// Bei Fehlern wird das Formular erneut angezeigt
 				model.put("pet", pet);
 				return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 		}
 
-		owner.addPet(pet);
-		this.owners.save(owner);
 		// Fügt eine Flash-Nachricht hinzu
 		redirectAttributes.addFlashAttribute("message", "Pet details has been edited");
 		return "redirect:/owners/{ownerId}";
 	}
+
+	// Fügt das Pet ein; false, wenn ein gleichzeitig gespeichertes Pet denselben Namen bekommen hat
+	private boolean add(Owner owner, Pet pet) {
+		try {
+				if (!this.pets.add(owner.getId(), pet)) {
+						throw new IllegalArgumentException("Owner ID not found: " + owner.getId());
+				}
+				return true;
+		}
+		catch (DataIntegrityViolationException ex) {
+				return false;
+		}
+	}
+
+	// Ändert das Pet; false, wenn ein gleichzeitig gespeichertes Pet denselben Namen bekommen hat
+	private boolean update(Owner owner, Pet pet) {
+		try {
+				if (!this.pets.update(owner.getId(), pet)) {
+						throw new IllegalArgumentException("Pet ID not found for owner " + owner.getId() + ": " + pet.getId());
+				}
+				return true;
+		}
+		catch (DataIntegrityViolationException ex) {
+				return false;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+// Schreibzugriff auf Haustiere, ohne das ganze Owner-Aggregat zu laden und zu speichern
+// Neue und geänderte Haustiere werden direkt als Zeile in "pets" geschrieben (siehe PetSaving)
+public interface PetRepository extends Repository<Pet, Integer>, PetSaving {
+
+	// Zählt die Haustiere eines Besitzers mit diesem Namen (ohne Groß-/Kleinschreibung), außer dem Haustier exceptPetId
+	// Gestützt vom eindeutigen Index auf (owner_id, lower(name)) in db/*/schema.sql
+	@Query(value = "SELECT COUNT(*) FROM pets WHERE owner_id = :ownerId AND LOWER(name) = LOWER(:name) AND id <> :exceptPetId",
+			nativeQuery = true)
+	@Transactional(readOnly = true)
+	long countByOwnerAndName(@Param("ownerId") Integer ownerId, @Param("name") String name,
+			@Param("exceptPetId") Integer exceptPetId);
+
+	// Prüft, ob der Besitzer schon ein anderes Haustier dieses Namens hat; petId ist null für ein neues Haustier
+	default boolean existsByOwnerAndName(Integer ownerId, String name, Integer petId) {
+		// IDs beginnen bei 1, 0 schließt also kein Haustier aus
+		return countByOwnerAndName(ownerId, name, petId != null ? petId : 0) > 0;
+	}
+
+}
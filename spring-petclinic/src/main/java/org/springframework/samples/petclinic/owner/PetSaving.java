@@ -0,0 +1,18 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.springframework.transaction.annotation.Transactional;
+
+// Repository-Fragment zum Einfügen und Ändern eines Haustiers als einzelne Zeile in "pets"
+// Weder Besitzer noch seine übrigen Haustiere werden dafür geladen oder gemergt
+public interface PetSaving {
+
+	// Fügt ein neues Haustier für einen Besitzer ein; false, wenn es den Besitzer nicht gibt
+	@Transactional
+	boolean add(Integer ownerId, Pet pet);
+
+	// Ändert Name, Geburtsdatum und Art eines Haustiers; false, wenn das Haustier nicht zu diesem Besitzer gehört
+	@Transactional
+	boolean update(Integer ownerId, Pet pet);
+
+}
@@ -0,0 +1,71 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.ObjectProvider;
+
+import jakarta.persistence.EntityManager;
+
+// Implementierung des Fragments PetSaving (wird von Spring Data über das Suffix "Impl" gefunden)
+// Ein doppelter Name verletzt den eindeutigen Index pets_owner_name; Spring Data übersetzt das
+// in eine DataIntegrityViolationException
+class PetSavingImpl implements PetSaving {
+
+	// Die Besitzprüfung steckt im INSERT ... SELECT selbst: gibt es den Besitzer nicht, wird nichts eingefügt
+	private static final String INSERT = "INSERT INTO pets (id, name, birth_date, type_id, owner_id) "
+			+ "SELECT :id, :name, :birthDate, :typeId, owner.id FROM owners owner WHERE owner.id = :ownerId";
+
+	// owner_id ist nicht änderbar, ein Haustier eines anderen Besitzers wird nicht getroffen
+	// Die Art ist beim Bearbeiten optional (PetValidator); ohne Angabe bleibt die bisherige erhalten
+	private static final String UPDATE = "UPDATE pets SET name = :name, birth_date = :birthDate, "
+			+ "type_id = COALESCE(:typeId, type_id) "
+			+ "WHERE id = :id AND owner_id = :ownerId";
+
+	private final EntityManager entityManager;
+
+	// Der Cache ist optional (petclinic.cache.owners.enabled)
+	private final ObjectProvider<OwnerCache> cache;
+
+	PetSavingImpl(EntityManager entityManager, ObjectProvider<OwnerCache> cache) {
+		this.entityManager = entityManager;
+		this.cache = cache;
+	}
+
+	@Override
+	public boolean add(Integer ownerId, Pet pet) {
+		Integer id = SequenceIds.next(this.entityManager, pet);
+		if (execute(INSERT, ownerId, id, pet) == 0) {
+			return false;
+		}
+		pet.setId(id);
+		return true;
+	}
+
+	@Override
+	public boolean update(Integer ownerId, Pet pet) {
+		return execute(UPDATE, ownerId, pet.getId(), pet) > 0;
+	}
+
+	private int execute(String sql, Integer ownerId, Integer id, Pet pet) {
+		Integer typeId = pet.getType() != null ? pet.getType().getId() : null;
+		NativeQuery<?> query = this.entityManager.createNativeQuery(sql)
+			.unwrap(NativeQuery.class)
+			.setParameter("id", id)
+			.setParameter("name", pet.getName())
+			.setParameter("birthDate", pet.getBirthDate())
+			// Typisiert, damit auch null als INTEGER gebunden wird (COALESCE unter PostgreSQL)
+			.setParameter("typeId", typeId, StandardBasicTypes.INTEGER)
+			.setParameter("ownerId", ownerId);
+		// Ohne Angabe der betroffenen Tabelle würde Hibernate den gesamten Second-Level-Cache
+		// (Tierärzte, Haustierarten) verwerfen; Haustiere selbst liegen dort nicht
+		query.addSynchronizedQuerySpace("pets");
+		int changed = query.executeUpdate();
+		if (changed > 0) {
+			// Das Haustier gehört zum Aggregat des Besitzers
+			this.cache.ifAvailable(owners -> owners.evict(ownerId));
+		}
+		return changed;
+	}
+
+}
@@ -3,14 +3,28 @@ package org.springframework.samples.petclinic.owner;
 // Importiert die NamedEntity-Klasse, die wahrscheinlich Felder wie 'id' und 'name' enthält
 import org.springframework.samples.petclinic.model.NamedEntity;
 
+// Importiert die Hibernate-Annotationen für den Second-Level-Cache
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 // Importiert JPA-Annotationen für die Entitätszuordnung
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 
 // Markiert die Klasse als eine JPA-Entität, die in der Datenbank persistiert wird
 @Entity
+// Änderungen an Haustierarten lassen die PetTypeRegistry neu laden
+@EntityListeners(PetTypeRegistryListener.class)
 // Ordnet diese Entität der Tabelle 'types' in der Datenbank zu
 @Table(name = "types")
+// Haustierarten ändern sich fast nie und liegen im Second-Level-Cache (Region "petTypes", siehe CacheConfiguration)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PetType.CACHE_REGION)
 public class PetType extends NamedEntity {
-    // Die Klasse ist leer, erbt aber von NamedEntity
+
+	// Name der Cache-Region für Haustierarten
+	public static final String CACHE_REGION = "petTypes";
+
 }
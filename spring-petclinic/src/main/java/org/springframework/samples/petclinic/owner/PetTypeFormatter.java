@@ -6,20 +6,19 @@ import org.springframework.format.Formatter;
 import org.springframework.stereotype.Component;
 
 import java.text.ParseException;
-import java.util.Collection;
 import java.util.Locale;
 
 // Markiert die Klasse als eine Komponente, die von Spring verwaltet wird
 @Component
 public class PetTypeFormatter implements Formatter<PetType> {
 
-	// Repository zum Zugriff auf Owner- und PetType-Daten
-	private final OwnerRepository owners;
+	// Zwischengespeichertes Verzeichnis der Haustierarten, damit das Binden eines Formulars keine Abfrage auslöst
+	private final PetTypeRegistry types;
 
-	// Konstruktor mit Autowiring, um das OwnerRepository zu injizieren
+	// Konstruktor mit Autowiring, um die PetTypeRegistry zu injizieren
 	@Autowired
-	public PetTypeFormatter(OwnerRepository owners) {
-		this.owners = owners;
+	public PetTypeFormatter(PetTypeRegistry types) {
+		this.types = types;
 	}
 
 	// Überschreibt die 'print'-Methode des Formatter-Interfaces
@@ -32,17 +31,13 @@ public class PetTypeFormatter implements Formatter<PetType> {
 	// Überschreibt die 'parse'-Methode, um einen String in ein PetType-Objekt zu konvertieren
 	@Override
 	public PetType parse(String text, Locale locale) throws ParseException {
-		// Holt alle verfügbaren PetTypes aus dem Repository
-		Collection<PetType> findPetTypes = this.owners.findPetTypes();
-		// Durchläuft die Liste der PetTypes
-		for (PetType type : findPetTypes) {
-				// Vergleicht den Namen des PetType mit dem gegebenen Text
-				if (type.getName().equals(text)) {
-						// Gibt das entsprechende PetType-Objekt zurück
-						return type;
-				}
-		}
+		// Sucht den PetType über den Namensindex der Registry
+		PetType type = this.types.findByName(text);
 		// Wenn kein passender PetType gefunden wird, wird eine ParseException geworfen
-		throw new ParseException("type not found: " + text, 0);
+		if (type == null) {
+			throw new ParseException("type not found: " + text, 0);
+		}
+		// Gibt das entsprechende PetType-Objekt zurück
+		return type;
 	}
 }
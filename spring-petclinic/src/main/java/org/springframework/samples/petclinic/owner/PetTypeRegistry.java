@@ -0,0 +1,104 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.stereotype.Component;
+
+// Unveränderliches, nach Name und ID indiziertes Verzeichnis aller Haustierarten
+// Wird beim ersten Zugriff einmal geladen und nach Änderungen an PetType neu geladen (siehe PetTypeRegistryListener),
+// damit Formular-Bindung (PetTypeFormatter) und Auswahlliste (PetController) keine Abfragen mehr auslösen
+@Component
+public class PetTypeRegistry {
+
+	// Repository, aus dem die Haustierarten geladen werden
+	private final OwnerRepository owners;
+
+	// Aktueller Stand; null bedeutet "beim nächsten Zugriff neu laden"
+	private volatile Snapshot snapshot;
+
+	// Lock statt synchronized: load() wartet auf die Datenbank, und ein blockierender synchronized-Block
+	// würde unter virtuellen Threads den Träger-Thread festhalten (Pinning)
+	private final Lock lock = new ReentrantLock();
+
+	public PetTypeRegistry(OwnerRepository owners) {
+		this.owners = owners;
+	}
+
+	// Gibt alle Haustierarten sortiert nach Namen zurück
+	public List<PetType> findAll() {
+		return snapshot().all();
+	}
+
+	// Sucht eine Haustierart nach ihrem Namen; null, wenn es sie nicht gibt
+	public PetType findByName(String name) {
+		return snapshot().byName().get(name);
+	}
+
+	// Sucht eine Haustierart nach ihrer ID; null, wenn es sie nicht gibt
+	public PetType findById(Integer id) {
+		return snapshot().byId().get(id);
+	}
+
+	// Verwirft den aktuellen Stand, der nächste Zugriff lädt die Haustierarten neu
+	public void refresh() {
+		this.lock.lock();
+		try {
+			this.snapshot = null;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	// Eine andere Instanz hat Haustierarten geändert (siehe CacheInvalidationBus)
+	@EventListener(condition = "#invalidation.covers(T(org.springframework.samples.petclinic.owner.PetType).CACHE_REGION)")
+	void invalidated(CacheInvalidation invalidation) {
+		refresh();
+	}
+
+	// Liefert den aktuellen Stand und lädt ihn bei Bedarf
+	private Snapshot snapshot() {
+		Snapshot current = this.snapshot;
+		return current != null ? current : load();
+	}
+
+	// Gesperrt wie refresh(), damit ein veralteter Stand ein gleichzeitiges Verwerfen nicht überschreibt
+	private Snapshot load() {
+		this.lock.lock();
+		try {
+			if (this.snapshot == null) {
+				this.snapshot = Snapshot.of(this.owners.findPetTypes());
+			}
+			return this.snapshot;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	// Unveränderliche Sicht auf alle Haustierarten samt Indizes
+	private record Snapshot(List<PetType> all, Map<String, PetType> byName, Map<Integer, PetType> byId) {
+
+		static Snapshot of(List<PetType> types) {
+			Map<String, PetType> byName = new HashMap<>();
+			Map<Integer, PetType> byId = new HashMap<>();
+			for (PetType type : types) {
+				byName.put(type.getName(), type);
+				// Noch nicht gespeicherte Arten (ohne ID) sind nur über den Namen auffindbar
+				if (type.getId() != null) {
+					byId.put(type.getId(), type);
+				}
+			}
+			return new Snapshot(List.copyOf(types), Map.copyOf(byName), Map.copyOf(byId));
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.samples.petclinic.system.CacheInvalidationBus;
+import org.springframework.samples.petclinic.system.TransactionCallbacks;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA-Entity-Listener, der die PetTypeRegistry nach Änderungen an Haustierarten neu laden lässt
+// Wird von Hibernate über den Spring-Bean-Container erzeugt
+class PetTypeRegistryListener {
+
+	private final ObjectProvider<PetTypeRegistry> registry;
+
+	// Die anderen Instanzen verwerfen ihre Registry und die Region "petTypes" (siehe PetTypeRegistry.invalidated)
+	private final ObjectProvider<CacheInvalidationBus> bus;
+
+	PetTypeRegistryListener(ObjectProvider<PetTypeRegistry> registry, ObjectProvider<CacheInvalidationBus> bus) {
+		this.registry = registry;
+		this.bus = bus;
+	}
+
+	// Neue, geänderte oder gelöschte Haustierart: erst nach dem Commit verwerfen, damit nicht der alte Stand neu geladen wird
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	void petTypeChanged(PetType petType) {
+		TransactionCallbacks.afterCommit(() -> {
+			this.registry.ifAvailable(PetTypeRegistry::refresh);
+			this.bus.ifAvailable(invalidations -> invalidations.publish(CacheInvalidation.region(PetType.CACHE_REGION)));
+		});
+	}
+
+}
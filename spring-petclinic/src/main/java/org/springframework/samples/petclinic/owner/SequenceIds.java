@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+
+import jakarta.persistence.EntityManager;
+
+// IDs für Zeilen, die per nativem INSERT statt über persist() eingefügt werden (VisitBookingImpl, PetSavingImpl)
+final class SequenceIds {
+
+	private SequenceIds() {
+	}
+
+	// Holt die ID aus demselben gepoolten Generator (<tabelle>_seq), den Hibernate beim Speichern verwendet
+	// Die Identity-Vorgabe der Spalte würde sonst mit IDs aus der Sequenz und aus OwnerDataGenerator kollidieren
+	static Integer next(EntityManager entityManager, Object entity) {
+		SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+		EntityPersister persister = session.getFactory()
+			.getMappingMetamodel()
+			.getEntityDescriptor(entity.getClass());
+		BeforeExecutionGenerator generator = (BeforeExecutionGenerator) persister.getGenerator();
+		return (Integer) generator.generate(session, entity, null, EventType.INSERT);
+	}
+
+}
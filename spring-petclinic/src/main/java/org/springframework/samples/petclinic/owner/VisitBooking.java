@@ -0,0 +1,14 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.springframework.transaction.annotation.Transactional;
+
+// Repository-Fragment zum Buchen eines Besuchs als einzelne Zeile in "visits"
+// Weder Besitzer noch Haustiere noch die bisherigen Besuche werden dafür geladen oder gemergt
+public interface VisitBooking {
+
+	// Bucht einen Besuch für das Haustier eines Besitzers; false, wenn das Haustier nicht zu diesem Besitzer gehört
+	@Transactional
+	boolean book(Integer ownerId, Integer petId, Visit visit);
+
+}
@@ -0,0 +1,44 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen
+import org.springframework.beans.factory.ObjectProvider;
+
+import jakarta.persistence.EntityManager;
+
+// Implementierung des Fragments VisitBooking (wird von Spring Data über das Suffix "Impl" gefunden)
+class VisitBookingImpl implements VisitBooking {
+
+	// Die Besitzprüfung steckt im INSERT ... SELECT selbst: gehört das Haustier nicht dem Besitzer, wird nichts eingefügt
+	private static final String INSERT = "INSERT INTO visits (id, pet_id, visit_date, description) "
+			+ "SELECT :id, pet.id, :date, :description FROM pets pet WHERE pet.id = :petId AND pet.owner_id = :ownerId";
+
+	private final EntityManager entityManager;
+
+	// Der Cache ist optional (petclinic.cache.owners.enabled)
+	private final ObjectProvider<OwnerCache> cache;
+
+	VisitBookingImpl(EntityManager entityManager, ObjectProvider<OwnerCache> cache) {
+		this.entityManager = entityManager;
+		this.cache = cache;
+	}
+
+	@Override
+	public boolean book(Integer ownerId, Integer petId, Visit visit) {
+		Integer id = SequenceIds.next(this.entityManager, visit);
+		int inserted = this.entityManager.createNativeQuery(INSERT)
+			.setParameter("id", id)
+			.setParameter("date", visit.getDate())
+			.setParameter("description", visit.getDescription())
+			.setParameter("petId", petId)
+			.setParameter("ownerId", ownerId)
+			.executeUpdate();
+		if (inserted == 0) {
+			return false;
+		}
+		visit.setId(id);
+		// Der neue Besuch gehört zum Aggregat des Besitzers
+		this.cache.ifAvailable(owners -> owners.evict(ownerId));
+		return true;
+	}
+
+}
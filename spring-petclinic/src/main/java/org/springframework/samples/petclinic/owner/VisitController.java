@@ -20,12 +20,16 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 // Der VisitController verwaltet die HTTP-Anfragen im Zusammenhang mit Besuchen (Visits) von Haustieren
 class VisitController {
 
-	// Repository zum Zugriff auf Owner-Daten
-	private final OwnerRepository owners;
+	// Repository zum direkten Einfügen neuer Besuche
+	private final VisitRepository visits;
 
-	// Konstruktor zur Injektion des OwnerRepositorys
-	public VisitController(OwnerRepository owners) {
-		this.owners = owners;
+	// Lädt den Besitzer nur einmal pro Anfrage
+	private final OwnerLoader ownerLoader;
+
+	// Konstruktor zur Injektion des VisitRepositorys und des OwnerLoader
+	public VisitController(VisitRepository visits, OwnerLoader ownerLoader) {
+		this.visits = visits;
+		this.ownerLoader = ownerLoader;
 	}
 
 	//Initialisiert den WebDataBinder
@@ -41,45 +45,51 @@ class VisitController {
     public Visit loadPetWithVisit(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
                                   Map<String, Object> model) {
 			// Findet den Besitzer anhand der ID
-			Owner owner = this.owners.findById(ownerId);
+			Owner owner = this.ownerLoader.load(ownerId);
+			if (owner == null) {
+				throw new IllegalArgumentException("Owner ID not found: " + ownerId);
+			}
 
 			// Holt das Haustier des Besitzers anhand der Haustier-ID
 			Pet pet = owner.getPet(petId);
+			if (pet == null) {
+				throw new IllegalArgumentException("Pet ID not found: " + petId);
+			}
 
 			// Fügt das Haustier und den Besitzer dem Modell hinzu
 			model.put("pet", pet);
 			model.put("owner", owner);
 
-			// Erstellt einen neuen Besuch und fügt ihn dem Haustier hinzu
-			Visit visit = new Visit();
-			pet.addVisit(visit);
-
-			// Gibt den neuen Besuch zurück
-			return visit;
+			// Erstellt einen neuen Besuch; er wird nicht in pet.visits eingefügt,
+			// damit die bisherigen Besuche dafür nicht geladen werden müssen
+			return new Visit();
     }
 
 	// Handhabt GET-Anfragen zum Initialisieren des Formulars für einen neuen Besuch
 	@GetMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String initNewVisitForm() {
+	public String initNewVisitForm(@PathVariable int ownerId, @PathVariable int petId, Map<String, Object> model) {
+		addPreviousVisits(ownerId, petId, model);
 		// Gibt den Namen der View zurück, um das Formular anzuzeigen
 		return "pets/createOrUpdateVisitForm";
 	}
 
 	// Handhabt POST-Anfragen zum Verarbeiten des Formulars für einen neuen Besuch
 	@PostMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-    public String processNewVisitForm(@ModelAttribute Owner owner, @PathVariable int petId, @Valid Visit visit,
-                                      BindingResult result, RedirectAttributes redirectAttributes) {
+    public String processNewVisitForm(@PathVariable int ownerId, @PathVariable int petId, @Valid Visit visit,
+                                      BindingResult result, RedirectAttributes redirectAttributes,
+                                      Map<String, Object> model) {
 																				
 		if (result.hasErrors()) {
 				// Bei Validierungsfehlern zurück zum Formular
+				addPreviousVisits(ownerId, petId, model);
 				return "pets/createOrUpdateVisitForm";
 		}
 
-		// Fügt den Besuch dem entsprechenden Haustier des Besitzers hinzu
-		owner.addVisit(petId, visit);
-
-		// Speichert den Besitzer mit dem neuen Besuch im Repository
-		this.owners.save(owner);
+		// Fügt nur die neue Besuchszeile ein, statt den Besitzer samt aller Haustiere und Besuche zu mergen
+		// Die Einfügung prüft selbst, dass das Haustier (noch) diesem Besitzer gehört
+		if (!this.visits.book(ownerId, petId, visit)) {
+			throw new IllegalArgumentException("Pet ID " + petId + " not found for owner ID " + ownerId);
+		}
 
 		// Fügt eine Flash-Nachricht hinzu, die nach der Umleitung angezeigt wird
 		redirectAttributes.addFlashAttribute("message", "Your visit has been booked");
@@ -87,4 +97,12 @@ class VisitController {
 		// Umleitung zur Detailseite des Besitzers
 		return "redirect:/owners/{ownerId}";
 	}
-}
\ No newline at end of file
+
+	// Die bisherigen Besuche des Haustiers als Lesesicht; die View greift nicht auf pet.visits zu,
+	// damit sie ohne offene Session rendern kann und die Buchung (POST) die Besuche gar nicht erst lädt
+	private void addPreviousVisits(int ownerId, int petId, Map<String, Object> model) {
+		OwnerDetails owner = this.ownerLoader.loadDetails(ownerId);
+		model.put("previousVisits", owner.getPet(petId).getVisits());
+	}
+
+}
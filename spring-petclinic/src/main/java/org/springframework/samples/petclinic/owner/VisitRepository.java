@@ -0,0 +1,10 @@
+package org.springframework.samples.petclinic.owner;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.data.repository.Repository;
+
+// Schreibzugriff auf Besuche, ohne das ganze Owner-Aggregat zu laden und zu speichern
+// Ein neuer Besuch wird direkt als Zeile in "visits" eingefügt (siehe VisitBooking)
+public interface VisitRepository extends Repository<Visit, Integer>, VisitBooking {
+
+}
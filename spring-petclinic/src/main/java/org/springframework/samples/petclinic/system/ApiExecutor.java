@@ -0,0 +1,87 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen und Annotationen
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+// Begrenzter Executor für die JDBC-Arbeit der asynchronen JSON-API (/api/**)
+// Die Controller geben CompletableFutures zurück, damit der Servlet-Thread während der Abfragen frei ist
+// Threads und Warteschlange sind begrenzt: sind beide belegt, wird sofort abgelehnt (TaskRejectedException), und die API
+// antwortet mit 429 und Retry-After, statt Anfragen unbegrenzt aufzustauen
+// Bewusst kein Executor-Bean: ein solches würde den applicationTaskExecutor von Spring Boot (asynchrone MVC-Anfragen
+// wie der Export, @Async) verdrängen
+@Component
+public class ApiExecutor implements DisposableBean {
+
+	private final ThreadPoolTaskExecutor executor;
+
+	// Wartezeit, die abgelehnten Clients im Header Retry-After genannt wird
+	private final Duration retryAfter;
+
+	// Abgelehnte Aufgaben (petclinic.api.rejected); null ohne MeterRegistry
+	private final Counter rejected;
+
+	ApiExecutor(@Value("${petclinic.api.executor.threads:10}") int threads,
+			@Value("${petclinic.api.executor.queue-capacity:100}") int queueCapacity,
+			@Value("${petclinic.api.retry-after:1s}") Duration retryAfter, ObjectProvider<MeterRegistry> registry) {
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setThreadNamePrefix("api-");
+		this.executor.setCorePoolSize(threads);
+		this.executor.setMaxPoolSize(threads);
+		this.executor.setQueueCapacity(queueCapacity);
+		// Die Anweisungen zählen zur Anfrage, die die Aufgabe abgegeben hat (petclinic.sql.*)
+		this.executor.setTaskDecorator(SqlStatementStats::propagate);
+		// Beim Herunterfahren werden angenommene Anfragen noch beantwortet
+		this.executor.setWaitForTasksToCompleteOnShutdown(true);
+		this.executor.setAwaitTerminationSeconds(30);
+		this.executor.initialize();
+		this.retryAfter = retryAfter;
+		MeterRegistry meters = registry.getIfAvailable();
+		if (meters != null) {
+			// executor.active, executor.queued, executor.pool.size usw. mit dem Tag name=api
+			new ExecutorServiceMetrics(this.executor.getThreadPoolExecutor(), "api", Tags.empty()).bindTo(meters);
+			this.rejected = Counter.builder("petclinic.api.rejected")
+				.description("API requests rejected because the API executor was saturated")
+				.register(meters);
+		}
+		else {
+			this.rejected = null;
+		}
+	}
+
+	// Führt die Arbeit im Executor aus; wirft TaskRejectedException, wenn Threads und Warteschlange belegt sind
+	public <T> CompletableFuture<T> submit(Supplier<T> work) {
+		try {
+			return CompletableFuture.supplyAsync(work, this.executor);
+		}
+		catch (TaskRejectedException ex) {
+			if (this.rejected != null) {
+				this.rejected.increment();
+			}
+			throw ex;
+		}
+	}
+
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
+	@Override
+	public void destroy() {
+		this.executor.shutdown();
+	}
+
+}
@@ -1,30 +1,133 @@
 package org.springframework.samples.petclinic.system;
 
-import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
 
-import javax.cache.configuration.MutableConfiguration;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
 
 // Diese Klasse konfiguriert das Caching für die Anwendung
-// Sie erstellt einen Cache namens "vets" und aktiviert das Caching insgesamt
+// Sie legt die Caches "vets" (alle Tierärzte), "vetPages" (einzelne Seiten) und "owners" (Owner-Aggregate) mit Caffeine an
+// und aktiviert das Caching insgesamt
+// Zusätzlich stellt sie Hibernate einen JCache-CacheManager (ebenfalls Caffeine) für den Second-Level- und Query-Cache
+// der Stammdaten PetType, Specialty und Vet bereit
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
 class CacheConfiguration {
 
-	//Definiert einen Bean, der den CacheManager anpasst
-	// Erstellt einen Cache mit dem Namen "vets" und der angegebenen Konfiguration
+	// Definiert einen Bean, der den CaffeineCacheManager anpasst
+	// Größe und Lebensdauer der Einträge kommen aus den Eigenschaften petclinic.cache.vets.* und petclinic.cache.owners.*
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
-		// Lambda-Ausdruck, der den Cache "vets" mit der spezifizierten Konfiguration erstellt
-		return cm -> cm.createCache("vets", cacheConfiguration());
+	public CacheManagerCustomizer<CaffeineCacheManager> petclinicCacheConfigurationCustomizer(
+			@Value("${petclinic.cache.vets.maximum-size:100}") long maximumSize,
+			@Value("${petclinic.cache.vets.time-to-live:10m}") Duration timeToLive,
+			@Value("${petclinic.cache.owners.maximum-size:10000}") long ownersMaximumSize,
+			@Value("${petclinic.cache.owners.time-to-live:5m}") Duration ownersTimeToLive) {
+		return cm -> {
+			cm.registerCustomCache(VetRepository.VETS_CACHE, cacheConfiguration(maximumSize, timeToLive).build());
+			cm.registerCustomCache(VetRepository.VET_PAGES_CACHE, cacheConfiguration(maximumSize, timeToLive).build());
+			cm.registerCustomCache(OwnerRepository.OWNERS_CACHE,
+					cacheConfiguration(ownersMaximumSize, ownersTimeToLive).build());
+		};
 	}
 
 	// Definiert die Cache-Konfiguration
-	// Aktiviert die Statistik für den Cache, um Monitoring zu ermöglichen
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		// Erstellt eine neue MutableConfiguration und aktiviert die Statistiken
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	// Begrenzt Größe und Lebensdauer und aktiviert die Statistik, damit Actuator Treffer, Fehlschläge und Verdrängungen
+	// unter /actuator/metrics/cache.* anzeigt
+	private Caffeine<Object, Object> cacheConfiguration(long maximumSize, Duration timeToLive) {
+		return Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats();
+	}
+
+	// Second-Level-Cache von Hibernate: eine Caffeine-Region je Entität bzw. Collection, jeweils mit eigener Größe
+	// Die Lebensdauer (petclinic.cache.entities.time-to-live) begrenzt, wie lange eine Invalidierung, die eine andere
+	// Instanz nicht verteilen konnte (siehe JdbcCacheInvalidationBus), hier einen veralteten Stand stehen lässt
+	// Der CacheManager bekommt eine eindeutige URI, damit mehrere Anwendungskontexte (z. B. in Tests) sich keine
+	// Regionen teilen; Spring schließt ihn beim Herunterfahren
+	@Bean(destroyMethod = "close")
+	CacheManager hibernateCacheManager(@Value("${petclinic.cache.entities.pet-types:100}") long petTypes,
+			@Value("${petclinic.cache.entities.specialties:100}") long specialties,
+			@Value("${petclinic.cache.entities.vets:1000}") long vets,
+			@Value("${petclinic.cache.entities.queries:1000}") long queries,
+			@Value("${petclinic.cache.entities.time-to-live:10m}") Duration timeToLive) {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+			.getCacheManager(URI.create("petclinic-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+		cacheManager.createCache(PetType.CACHE_REGION, regionConfiguration(petTypes, timeToLive));
+		cacheManager.createCache(Specialty.CACHE_REGION, regionConfiguration(specialties, timeToLive));
+		cacheManager.createCache(Vet.CACHE_REGION, regionConfiguration(vets, timeToLive));
+		cacheManager.createCache(Vet.SPECIALTIES_CACHE_REGION, regionConfiguration(vets, timeToLive));
+		cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+				regionConfiguration(queries, timeToLive));
+		// Die Zeitstempel der Tabellen entscheiden, ob ein Query-Ergebnis noch gültig ist, und dürfen weder verdrängt
+		// werden noch verfallen; es gibt ohnehin nur einen Eintrag je Tabelle
+		cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+				regionConfiguration(-1, null));
+		return cacheManager;
+	}
+
+	// Übergibt den CacheManager an Hibernate und schaltet Second-Level- und Query-Cache ein
+	// Fehlende Regionen führen zu einem Startfehler statt zu einem ungeregelten Standard-Cache
+	@Bean
+	HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+			properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+		};
+	}
+
+	// Veröffentlicht Treffer, Fehlschläge, Einträge und Verdrängungen jeder Region unter /actuator/metrics/cache.*
+	// mit dem Tag cacheManager=hibernate
+	@Bean
+	MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+		return registry -> {
+			for (String name : hibernateCacheManager.getCacheNames()) {
+				new JCacheMetrics<>(hibernateCacheManager.getCache(name), List.of(Tag.of("cacheManager", "hibernate")))
+					.bindTo(registry);
+			}
+		};
 	}
-}
\ No newline at end of file
+
+	// Konfiguration einer Region: Größe begrenzt (negativ = unbegrenzt), Lebensdauer ab dem Schreiben (null = unbegrenzt),
+	// Statistik aktiv
+	private static CaffeineConfiguration<Object, Object> regionConfiguration(long maximumSize, Duration timeToLive) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		if (maximumSize >= 0) {
+			configuration.setMaximumSize(OptionalLong.of(maximumSize));
+		}
+		if (timeToLive != null) {
+			configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+		}
+		configuration.setStatisticsEnabled(true);
+		return configuration;
+	}
+
+}
@@ -0,0 +1,24 @@
+package org.springframework.samples.petclinic.system;
+
+// Eine Cache-Invalidierung, die zwischen den Instanzen verteilt wird
+// region ist der Name eines Caches im Spring-CacheManager und/oder einer Region des Hibernate-Second-Level-Caches
+// (siehe CacheConfiguration); key ist die ID des Eintrags oder null für die ganze Region; region null steht für alle Caches
+// Empfangene Invalidierungen werden lokal als Application-Event veröffentlicht (siehe CacheInvalidationHandler)
+public record CacheInvalidation(String region, Integer key) {
+
+	// Invalidierung einer ganzen Region
+	public static CacheInvalidation region(String region) {
+		return new CacheInvalidation(region, null);
+	}
+
+	// Invalidierung aller Caches, z.B. wenn Invalidierungen verloren gegangen sein können
+	public static CacheInvalidation all() {
+		return new CacheInvalidation(null, null);
+	}
+
+	// Ob die Invalidierung die Region betrifft; für Event-Listener, die nur eine Region beobachten
+	public boolean covers(String region) {
+		return this.region == null || this.region.equals(region);
+	}
+
+}
@@ -0,0 +1,12 @@
+package org.springframework.samples.petclinic.system;
+
+// Verteilt Cache-Invalidierungen an die anderen Instanzen der Anwendung
+// Der Absender hat seinen eigenen Cache bereits geleert; jede Instanz, die eine Invalidierung empfängt, veröffentlicht
+// sie als CacheInvalidation-Event. Die Implementierung wird mit petclinic.cache.invalidation.bus gewählt
+// (none, loopback oder jdbc, siehe CacheInvalidationConfiguration)
+public interface CacheInvalidationBus {
+
+	// Verteilt eine Invalidierung; wird nach dem Commit der auslösenden Transaktion aufgerufen
+	void publish(CacheInvalidation invalidation);
+
+}
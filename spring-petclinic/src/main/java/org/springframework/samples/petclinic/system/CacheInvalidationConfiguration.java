@@ -0,0 +1,66 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen und Annotationen
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Wählt den Bus für Cache-Invalidierungen zwischen mehreren Instanzen (petclinic.cache.invalidation.bus)
+// none (Vorgabe): eine einzelne Instanz, es wird nichts verteilt
+// loopback: Invalidierungen gehen an die eigene Instanz zurück (Tests)
+// jdbc: Invalidierungen laufen über die Tabelle cache_invalidations der gemeinsamen Datenbank
+@Configuration(proxyBeanMethods = false)
+class CacheInvalidationConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "petclinic.cache.invalidation.bus", havingValue = "loopback")
+	CacheInvalidationBus loopbackCacheInvalidationBus(ApplicationEventPublisher events) {
+		return new LoopbackCacheInvalidationBus(events);
+	}
+
+	// Der JDBC-Bus fragt die Tabelle im Abstand poll-interval ab und löscht Zeilen, die älter als retention sind
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(name = "petclinic.cache.invalidation.bus", havingValue = "jdbc")
+	@EnableScheduling
+	static class Jdbc implements SchedulingConfigurer {
+
+		private final JdbcCacheInvalidationBus bus;
+
+		private final Duration pollInterval;
+
+		Jdbc(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ApplicationEventPublisher events,
+				ObjectProvider<MeterRegistry> registry,
+				@Value("${petclinic.cache.invalidation.poll-interval:1s}") Duration pollInterval,
+				@Value("${petclinic.cache.invalidation.retention:10m}") Duration retention) {
+			this.bus = new JdbcCacheInvalidationBus(jdbcTemplate, transactionManager, events,
+					registry.getIfAvailable(SimpleMeterRegistry::new), retention);
+			this.pollInterval = pollInterval;
+		}
+
+		@Bean
+		CacheInvalidationBus jdbcCacheInvalidationBus() {
+			return this.bus;
+		}
+
+		@Override
+		public void configureTasks(ScheduledTaskRegistrar registrar) {
+			registrar.addFixedDelayTask(this.bus::poll, this.pollInterval);
+			registrar.addFixedDelayTask(this.bus::purge, Duration.ofMinutes(1));
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen und Annotationen
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Wendet empfangene Cache-Invalidierungen auf die lokalen Caches an
+// Leert den gleichnamigen Spring-Cache und die gleichnamige Hibernate-Region; weil die Zeitstempel-Region dieser Instanz
+// von der Änderung auf der anderen Instanz nichts weiß, werden dabei auch die Query-Caches geleert
+// Eine Invalidierung ohne Region (CacheInvalidation.all) leert alle Caches
+// Läuft vor anderen Listenern (z.B. PetTypeRegistry), damit diese beim Neuladen keine veralteten Daten aus Hibernate lesen
+@Component
+class CacheInvalidationHandler {
+
+	private final CacheManager cacheManager;
+
+	// Ohne JPA (z.B. in Web-Tests) gibt es nur die Spring-Caches
+	private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+	CacheInvalidationHandler(CacheManager cacheManager, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+		this.cacheManager = cacheManager;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	void invalidate(CacheInvalidation invalidation) {
+		if (invalidation.region() == null) {
+			invalidateAll();
+			return;
+		}
+		Cache cache = this.cacheManager.getCache(invalidation.region());
+		if (cache != null) {
+			if (invalidation.key() == null) {
+				cache.clear();
+			}
+			else {
+				cache.evict(invalidation.key());
+			}
+		}
+		this.entityManagerFactory.ifAvailable(factory -> {
+			CacheImplementor hibernateCache = (CacheImplementor) factory.unwrap(SessionFactory.class).getCache();
+			if (hibernateCache.getRegion(invalidation.region()) != null) {
+				hibernateCache.evictRegion(invalidation.region());
+				hibernateCache.evictQueryRegions();
+			}
+		});
+	}
+
+	// Leert alle Spring-Caches und alle Regionen von Hibernate samt Query-Caches
+	private void invalidateAll() {
+		for (String name : this.cacheManager.getCacheNames()) {
+			Cache cache = this.cacheManager.getCache(name);
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+		this.entityManagerFactory
+			.ifAvailable(factory -> factory.unwrap(SessionFactory.class).getCache().evictAllRegions());
+	}
+
+}
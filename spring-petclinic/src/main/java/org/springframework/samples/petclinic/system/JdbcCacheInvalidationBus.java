@@ -0,0 +1,147 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Bus über die Tabelle cache_invalidations der gemeinsamen Datenbank, ohne weitere Infrastruktur
+// publish() schreibt eine Zeile, poll() liest regelmäßig die neuen Zeilen der anderen Instanzen, purge() löscht alte Zeilen
+// Invalidierungen sind idempotent; eine verspätet sichtbare Zeile wird daher lieber doppelt als gar nicht angewendet
+// Kann poll() Zeilen verpasst haben, leert es alle Caches; was publish() nicht schreiben konnte, erreicht die anderen
+// Instanzen nicht und verfällt dort erst mit der Lebensdauer der Caches (petclinic.cache.*.time-to-live)
+class JdbcCacheInvalidationBus implements CacheInvalidationBus {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcCacheInvalidationBus.class);
+
+	private static final String INSERT = "INSERT INTO cache_invalidations (node, region, cache_key, created_at) VALUES (?, ?, ?, ?)";
+
+	private static final String SELECT = "SELECT id, node, region, cache_key FROM cache_invalidations WHERE id > ? ORDER BY id";
+
+	private static final String MAX_ID = "SELECT COALESCE(MAX(id), 0) FROM cache_invalidations";
+
+	private static final String PURGE = "DELETE FROM cache_invalidations WHERE created_at < ?";
+
+	// Lücken in den IDs (Zeilen, deren Transaktion noch nicht sichtbar war) werden so viele Abfragen lang nachgelesen
+	private static final int GAP_POLLS = 10;
+
+	// Größere Sprünge (z.B. viele verworfene auto_increment-Werte) werden nicht einzeln verfolgt; darin können aber
+	// noch nicht sichtbare Zeilen liegen, daher werden dann alle Caches geleert
+	private static final long MAX_GAP = 100;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	// Eigene Transaktion für publish(): aufgerufen wird es meist nach dem Commit einer anderen Transaktion
+	// (TransactionCallbacks.afterCommit), deren Verbindung dann noch gebunden, aber bereits abgeschlossen ist;
+	// ein Insert darauf ginge verloren. Nicht schreibgeschützt, also immer an die Primärdatenbank
+	private final TransactionTemplate transactions;
+
+	private final ApplicationEventPublisher events;
+
+	private final Duration retention;
+
+	// Invalidierungen, die publish() nicht schreiben konnte (petclinic.cache.invalidation.publish.failures)
+	private final Counter publishFailures;
+
+	// Kennung dieser Instanz; eigene Zeilen werden beim Lesen übersprungen
+	private final String node = UUID.randomUUID().toString();
+
+	// Höchste bereits gelesene ID; -1 bis zur ersten Abfrage, die beim aktuellen Stand beginnt
+	private long lastId = -1;
+
+	// Fehlende IDs unterhalb von lastId -> verbleibende Abfragen
+	private final Map<Long, Integer> gaps = new HashMap<>();
+
+	JdbcCacheInvalidationBus(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			ApplicationEventPublisher events, MeterRegistry registry, Duration retention) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.events = events;
+		this.retention = retention;
+		this.publishFailures = Counter.builder("petclinic.cache.invalidation.publish.failures")
+			.description("Cache invalidations that could not be written to cache_invalidations")
+			.register(registry);
+	}
+
+	// Ein Fehler wird nur protokolliert und gezählt: die auslösende Transaktion ist bereits festgeschrieben, der Client
+	// bekäme sonst einen Fehler für eine Änderung, die gespeichert ist
+	@Override
+	public void publish(CacheInvalidation invalidation) {
+		try {
+			this.transactions.executeWithoutResult(status -> this.jdbcTemplate.update(INSERT, this.node,
+					invalidation.region(), invalidation.key(), Timestamp.from(Instant.now())));
+		}
+		catch (DataAccessException | TransactionException ex) {
+			this.publishFailures.increment();
+			logger.warn("Could not publish {}, other instances keep their cached state until it expires", invalidation,
+					ex);
+		}
+	}
+
+	// Liest die neuen Invalidierungen der anderen Instanzen und veröffentlicht sie lokal
+	// Wird vom Scheduler nie parallel aufgerufen (fixedDelay), daher ohne Synchronisierung
+	void poll() {
+		if (this.lastId < 0) {
+			this.lastId = this.jdbcTemplate.queryForObject(MAX_ID, Long.class);
+			return;
+		}
+		long from = this.gaps.isEmpty() ? this.lastId : Math.min(this.lastId, Collections.min(this.gaps.keySet()) - 1);
+		List<Row> rows = this.jdbcTemplate.query(SELECT, (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("node"),
+				rs.getString("region"), (Integer) rs.getObject("cache_key", Integer.class)), from);
+		this.gaps.replaceAll((id, polls) -> polls - 1);
+		this.gaps.values().removeIf(polls -> polls <= 0);
+		for (Row row : rows) {
+			if (row.id() > this.lastId) {
+				if (row.id() - this.lastId <= MAX_GAP) {
+					for (long missing = this.lastId + 1; missing < row.id(); missing++) {
+						this.gaps.put(missing, GAP_POLLS);
+					}
+				}
+				else {
+					logger.info("Skipped {} cache invalidation ids, invalidating all caches", row.id() - this.lastId - 1);
+					this.events.publishEvent(CacheInvalidation.all());
+				}
+				this.lastId = row.id();
+				deliver(row);
+			}
+			else if (this.gaps.remove(row.id()) != null) {
+				deliver(row);
+			}
+		}
+	}
+
+	// Löscht Zeilen, die alle Instanzen längst gelesen haben
+	void purge() {
+		int purged = this.jdbcTemplate.update(PURGE, Timestamp.from(Instant.now().minus(this.retention)));
+		logger.debug("Purged {} cache invalidations", purged);
+	}
+
+	private void deliver(Row row) {
+		if (!this.node.equals(row.node())) {
+			this.events.publishEvent(new CacheInvalidation(row.region(), row.key()));
+		}
+	}
+
+	private record Row(long id, String node, String region, Integer key) {
+	}
+
+}
@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import org.springframework.context.ApplicationEventPublisher;
+
+// Bus innerhalb derselben JVM: jede Invalidierung wird sofort an die eigene Instanz zurückgegeben
+// Für Tests und Einzelinstanzen, die den Weg über den Bus ohne Infrastruktur durchlaufen sollen
+class LoopbackCacheInvalidationBus implements CacheInvalidationBus {
+
+	private final ApplicationEventPublisher events;
+
+	LoopbackCacheInvalidationBus(ApplicationEventPublisher events) {
+		this.events = events;
+	}
+
+	@Override
+	public void publish(CacheInvalidation invalidation) {
+		this.events.publishEvent(invalidation);
+	}
+
+}
@@ -0,0 +1,109 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen und Annotationen
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Lese-/Schreib-Trennung: schreibgeschützte Transaktionen (@Transactional(readOnly = true)) lesen vom Replikat,
+// alle anderen Zugriffe gehen an die Primärdatenbank
+// Aktiv, sobald petclinic.datasource.replica.url gesetzt ist (siehe application-mysql/-postgres.properties)
+// Die Primärdatenbank wird wie bisher über spring.datasource.* konfiguriert, das Replikat über petclinic.datasource.replica.*
+// Beide Pools erscheinen mit eigenen Metriken (hikaricp.*, jdbc.connections.*, Tag pool=primary bzw. replica)
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${petclinic.datasource.replica.url:}'.isEmpty()")
+@EnableScheduling
+class ReplicaDataSourceConfiguration implements SchedulingConfigurer {
+
+	private final Duration checkInterval;
+
+	private ReplicaLagMonitor monitor;
+
+	ReplicaDataSourceConfiguration(@Value("${petclinic.datasource.replica.check-interval:1s}") Duration checkInterval) {
+		this.checkInterval = checkInterval;
+	}
+
+	// Pool der Primärdatenbank; Pool-Einstellungen wie bisher unter spring.datasource.hikari.*
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	// Pool des Replikats; Pool-Einstellungen unter petclinic.datasource.replica.hikari.*
+	// Ohne eigene Zugangsdaten gelten die der Primärdatenbank
+	@Bean
+	@ConfigurationProperties("petclinic.datasource.replica.hikari")
+	HikariDataSource replicaDataSource(DataSourceProperties properties,
+			@Value("${petclinic.datasource.replica.url}") String url,
+			@Value("${petclinic.datasource.replica.username:}") String username,
+			@Value("${petclinic.datasource.replica.password:}") String password) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+			.type(HikariDataSource.class)
+			.url(url)
+			.username(StringUtils.hasText(username) ? username : properties.determineUsername())
+			.password(StringUtils.hasText(username) ? password : properties.determinePassword())
+			.build();
+		dataSource.setPoolName("replica");
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+			@Value("${petclinic.datasource.replica.max-lag:5s}") Duration maxLag, ObjectProvider<MeterRegistry> registry) {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLag);
+		registry.ifAvailable(meters -> {
+			Gauge.builder("petclinic.datasource.replica.lag", monitor, ReplicaLagMonitor::lagSeconds)
+				.description("Replication lag of the read replica")
+				.baseUnit("seconds")
+				.register(meters);
+			Gauge.builder("petclinic.datasource.replica.available", monitor, m -> m.isAvailable() ? 1 : 0)
+				.description("Whether read-only transactions use the read replica")
+				.register(meters);
+		});
+		this.monitor = monitor;
+		return monitor;
+	}
+
+	// Die DataSource der Anwendung: LazyConnectionDataSourceProxy holt die echte Verbindung erst bei der ersten Anweisung
+	// und weiß dann, ob die Transaktion schreibgeschützt ist (Connection.setReadOnly)
+	@Bean
+	@Primary
+	DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+			ReplicaLagMonitor replicaLagMonitor, ObjectProvider<MeterRegistry> registry) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+		dataSource.setReadOnlyDataSource(new ReplicaFallbackDataSource(replicaDataSource, primaryDataSource,
+				replicaLagMonitor, registry.getIfAvailable(SimpleMeterRegistry::new)));
+		return dataSource;
+	}
+
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar registrar) {
+		registrar.addFixedDelayTask(() -> this.monitor.check(), this.checkInterval);
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// DataSource für schreibgeschützte Transaktionen: liefert Verbindungen des Replikats, solange der ReplicaLagMonitor
+// es für aktuell genug hält, sonst Verbindungen der Primärdatenbank
+// Zählt die Lesezugriffe je Pool unter petclinic.datasource.reads
+class ReplicaFallbackDataSource extends AbstractDataSource {
+
+	private final DataSource replica;
+
+	private final DataSource primary;
+
+	private final ReplicaLagMonitor monitor;
+
+	private final Counter replicaReads;
+
+	private final Counter primaryReads;
+
+	ReplicaFallbackDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor monitor,
+			MeterRegistry registry) {
+		this.replica = replica;
+		this.primary = primary;
+		this.monitor = monitor;
+		this.replicaReads = reads(registry, "replica");
+		this.primaryReads = reads(registry, "primary");
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return target().getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return target().getConnection(username, password);
+	}
+
+	private DataSource target() {
+		if (this.monitor.isAvailable()) {
+			this.replicaReads.increment();
+			return this.replica;
+		}
+		this.primaryReads.increment();
+		return this.primary;
+	}
+
+	private static Counter reads(MeterRegistry registry, String pool) {
+		return Counter.builder("petclinic.datasource.reads")
+			.description("Connections handed out to read-only transactions")
+			.tag("pool", pool)
+			.register(registry);
+	}
+
+}
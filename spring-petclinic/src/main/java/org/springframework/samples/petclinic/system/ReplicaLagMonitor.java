@@ -0,0 +1,84 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Misst die Replikationsverzögerung des Lese-Replikats über einen Herzschlag in der Tabelle replication_heartbeat
+// check() schreibt die aktuelle Zeit in die Primärdatenbank und liest den Herzschlag, der im Replikat bereits angekommen ist
+// Die Verzögerung enthält daher bis zu ein Prüfintervall; ist sie unbekannt oder größer als maxLag, gilt das Replikat als
+// nicht verfügbar und Lesezugriffe gehen an die Primärdatenbank (siehe ReplicaFallbackDataSource)
+class ReplicaLagMonitor {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+	private static final String UPDATE = "UPDATE replication_heartbeat SET beat = ? WHERE id = 1";
+
+	private static final String INSERT = "INSERT INTO replication_heartbeat (id, beat) VALUES (1, ?)";
+
+	private static final String SELECT = "SELECT beat FROM replication_heartbeat WHERE id = 1";
+
+	private final JdbcTemplate primary;
+
+	private final JdbcTemplate replica;
+
+	private final Duration maxLag;
+
+	// Letzte gemessene Verzögerung; null, solange sie unbekannt ist (kein Herzschlag, Replikat nicht erreichbar)
+	private volatile Duration lag;
+
+	ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag) {
+		this.primary = new JdbcTemplate(primary);
+		this.replica = new JdbcTemplate(replica);
+		this.maxLag = maxLag;
+	}
+
+	// Wird im Abstand petclinic.datasource.replica.check-interval aufgerufen
+	void check() {
+		Instant now = Instant.now();
+		try {
+			if (this.primary.update(UPDATE, Timestamp.from(now)) == 0) {
+				this.primary.update(INSERT, Timestamp.from(now));
+			}
+		}
+		catch (DataAccessException ex) {
+			logger.warn("Could not write replication heartbeat: {}", ex.getMessage());
+		}
+		Duration measured;
+		try {
+			Timestamp beat = this.replica.query(SELECT, rs -> rs.next() ? rs.getTimestamp(1) : null);
+			measured = beat == null ? null : Duration.between(beat.toInstant(), now);
+		}
+		catch (DataAccessException ex) {
+			logger.warn("Could not read replication heartbeat from replica: {}", ex.getMessage());
+			measured = null;
+		}
+		boolean wasAvailable = isAvailable();
+		this.lag = measured;
+		if (wasAvailable != isAvailable()) {
+			logger.info("Read replica {} (lag {})", isAvailable() ? "available" : "unavailable, reading from primary",
+					measured);
+		}
+	}
+
+	// Ob Lesezugriffe an das Replikat gehen dürfen
+	boolean isAvailable() {
+		Duration current = this.lag;
+		return current != null && current.compareTo(this.maxLag) <= 0;
+	}
+
+	// Verzögerung in Sekunden für die Metrik; NaN, solange sie unbekannt ist
+	double lagSeconds() {
+		Duration current = this.lag;
+		return current == null ? Double.NaN : current.toMillis() / 1000.0;
+	}
+
+}
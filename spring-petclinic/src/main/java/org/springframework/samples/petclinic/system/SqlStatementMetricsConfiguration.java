@@ -0,0 +1,64 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen und Annotationen
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Misst pro HTTP-Anfrage die Anzahl der SQL-Anweisungen, die JDBC-Zeit und die gelesenen Zeilen
+// und stellt sie unter /actuator/metrics/petclinic.sql.* bereit (abschaltbar mit petclinic.sql-metrics.enabled=false)
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "petclinic.sql-metrics.enabled", havingValue = "true", matchIfMissing = true)
+class SqlStatementMetricsConfiguration implements WebMvcConfigurer {
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	private final int warnThreshold;
+
+	SqlStatementMetricsConfiguration(ObjectProvider<MeterRegistry> registry,
+			@Value("${petclinic.sql-metrics.statement-warn-threshold:0}") int warnThreshold) {
+		this.registry = registry;
+		this.warnThreshold = warnThreshold;
+	}
+
+	// Umhüllt die DataSource (statisch, damit der Post-Processor früh und ohne diese Konfiguration erzeugt wird)
+	// Nur die DataSource der Anwendung ("dataSource"), nicht die Pools dahinter (siehe ReplicaDataSourceConfiguration),
+	// damit keine Anweisung doppelt gezählt wird
+	@Bean
+	static BeanPostProcessor sqlStatementStatsDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+						&& !(bean instanceof SqlStatementStatsDataSource)) {
+					return new SqlStatementStatsDataSource(dataSource);
+				}
+				return bean;
+			}
+		};
+	}
+
+	// Spring Boot versieht den applicationTaskExecutor mit diesem Decorator: die JDBC-Arbeit asynchroner MVC-Anfragen
+	// (z.B. der Streaming-Export) zählt damit zur Anfrage wie die Arbeit im ApiExecutor
+	@Bean
+	TaskDecorator sqlStatementStatsTaskDecorator() {
+		return SqlStatementStats::propagate;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		this.registry.ifAvailable(meters -> registry
+			.addInterceptor(new SqlStatementMetricsInterceptor(meters, this.warnThreshold)));
+	}
+
+}
@@ -0,0 +1,100 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Veröffentlicht die JDBC-Arbeit jeder Controller-Anfrage als Micrometer-Metriken, getaggt mit Controller und Methode:
+// petclinic.sql.statements (Anweisungen), petclinic.sql.time (JDBC-Zeit), petclinic.sql.rows (gelesene Zeilen),
+// petclinic.sql.connection-time (Zeit, in der die Anfrage eine Verbindung hielt)
+// Gezählt wird bis afterCompletion, also einschließlich der Lazy Loads beim Rendern der View, falls Open Session in View
+// eingeschaltet ist; eine bis dahin noch gehaltene Verbindung zählt bis zu diesem Zeitpunkt
+// Asynchrone Anfragen (JSON-API, Export) zählen über alle Threads: die Arbeit im ApiExecutor bzw. im
+// applicationTaskExecutor und den erneuten Dispatch
+class SqlStatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+	private static final Logger logger = LoggerFactory.getLogger(SqlStatementMetricsInterceptor.class);
+
+	private static final String STATS = SqlStatementMetricsInterceptor.class.getName() + ".stats";
+
+	private final MeterRegistry registry;
+
+	// Ab so vielen Anweisungen pro Anfrage wird eine Warnung geloggt (0 = aus), um N+1-Abfragen zu erkennen
+	private final int warnThreshold;
+
+	SqlStatementMetricsInterceptor(MeterRegistry registry, int warnThreshold) {
+		this.registry = registry;
+		this.warnThreshold = warnThreshold;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod) {
+			if (request.getAttribute(STATS) instanceof SqlStatementStats stats) {
+				// Erneuter Dispatch mit dem Ergebnis einer asynchronen Anfrage
+				SqlStatementStats.resume(stats);
+			}
+			else {
+				request.setAttribute(STATS, SqlStatementStats.start());
+			}
+		}
+		return true;
+	}
+
+	// Der Servlet-Thread wird frei, bevor die Anfrage fertig ist; die Zählung bleibt an der Anfrage
+	// und wird erst im afterCompletion des erneuten Dispatchs veröffentlicht
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		SqlStatementStats.stop();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		if (!(request.getAttribute(STATS) instanceof SqlStatementStats stats)
+				|| !(handler instanceof HandlerMethod handlerMethod)) {
+			return;
+		}
+		SqlStatementStats.stop();
+		request.removeAttribute(STATS);
+		String controller = handlerMethod.getBeanType().getSimpleName();
+		String method = handlerMethod.getMethod().getName();
+		DistributionSummary.builder("petclinic.sql.statements")
+			.description("JDBC statements executed per request")
+			.tags("controller", controller, "method", method)
+			.register(this.registry)
+			.record(stats.getStatements());
+		Timer.builder("petclinic.sql.time")
+			.description("Time spent in JDBC calls per request")
+			.tags("controller", controller, "method", method)
+			.register(this.registry)
+			.record(stats.getNanos(), TimeUnit.NANOSECONDS);
+		Timer.builder("petclinic.sql.connection-time")
+			.description("Time a JDBC connection was held per request")
+			.tags("controller", controller, "method", method)
+			.register(this.registry)
+			.record(stats.getConnectionNanos(), TimeUnit.NANOSECONDS);
+		DistributionSummary.builder("petclinic.sql.rows")
+			.description("Rows fetched per request")
+			.tags("controller", controller, "method", method)
+			.register(this.registry)
+			.record(stats.getRows());
+		if (this.warnThreshold > 0 && stats.getStatements() >= this.warnThreshold) {
+			logger.warn("{} {} ({}.{}) executed {} SQL statements in {} ms and fetched {} rows", request.getMethod(),
+					request.getRequestURI(), controller, method, stats.getStatements(),
+					TimeUnit.NANOSECONDS.toMillis(stats.getNanos()), stats.getRows());
+		}
+	}
+
+}
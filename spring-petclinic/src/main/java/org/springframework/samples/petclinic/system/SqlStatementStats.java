@@ -0,0 +1,124 @@
+package org.springframework.samples.petclinic.system;
+
+// Zähler der JDBC-Arbeit des aktuellen Threads während einer HTTP-Anfrage
+// Gezählt wird nur zwischen start() und stop(); außerhalb einer Anfrage kostet ein JDBC-Aufruf nur das Lesen des ThreadLocal
+final class SqlStatementStats {
+
+	private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+	// Ausgeführte Anweisungen (ein executeBatch zählt als eine Anweisung)
+	private int statements;
+
+	// Zeit in execute* und ResultSet.next, also Datenbank und Netzwerk
+	private long nanos;
+
+	// Gelesene Zeilen über alle ResultSets
+	private long rows;
+
+	// Gerade gehaltene Verbindungen und seit wann mindestens eine gehalten wird
+	private int openConnections;
+
+	private long openSince;
+
+	// Zeit, in der mindestens eine Verbindung gehalten wurde (Connection-Haltezeit der Anfrage)
+	private long connectionNanos;
+
+	private SqlStatementStats() {
+	}
+
+	// Beginnt die Zählung für den aktuellen Thread
+	static SqlStatementStats start() {
+		SqlStatementStats stats = new SqlStatementStats();
+		CURRENT.set(stats);
+		return stats;
+	}
+
+	// Beendet die Zählung für den aktuellen Thread
+	static void stop() {
+		CURRENT.remove();
+	}
+
+	// Setzt die Zählung einer Anfrage auf dem aktuellen Thread fort (erneuter Dispatch einer asynchronen Anfrage)
+	static void resume(SqlStatementStats stats) {
+		CURRENT.set(stats);
+	}
+
+	// Gibt die Zählung des aufrufenden Threads an eine Aufgabe auf einem anderen Thread weiter (siehe ApiExecutor und
+	// SqlStatementMetricsConfiguration)
+	// Der aufrufende Thread führt bis zum Ergebnis kein JDBC mehr aus, beide zählen also nie gleichzeitig
+	static Runnable propagate(Runnable task) {
+		SqlStatementStats stats = CURRENT.get();
+		if (stats == null) {
+			return task;
+		}
+		return () -> {
+			CURRENT.set(stats);
+			try {
+				task.run();
+			}
+			finally {
+				CURRENT.remove();
+			}
+		};
+	}
+
+	// Zählt eine ausgeführte Anweisung
+	static void statement(long nanos) {
+		SqlStatementStats stats = CURRENT.get();
+		if (stats != null) {
+			stats.statements++;
+			stats.nanos += nanos;
+		}
+	}
+
+	// Zählt einen Aufruf von ResultSet.next
+	static void fetch(long nanos, boolean row) {
+		SqlStatementStats stats = CURRENT.get();
+		if (stats != null) {
+			stats.nanos += nanos;
+			if (row) {
+				stats.rows++;
+			}
+		}
+	}
+
+	// Zählt das Holen einer Verbindung; liefert die Zählung, der ihr close() gemeldet wird (null außerhalb von Anfragen)
+	static SqlStatementStats connectionAcquired() {
+		SqlStatementStats stats = CURRENT.get();
+		if (stats != null && stats.openConnections++ == 0) {
+			stats.openSince = System.nanoTime();
+		}
+		return stats;
+	}
+
+	// Zählt das Zurückgeben einer Verbindung, die während dieser Zählung geholt wurde
+	void connectionReleased() {
+		if (this.openConnections > 0 && --this.openConnections == 0) {
+			this.connectionNanos += System.nanoTime() - this.openSince;
+		}
+	}
+
+	// Ob gerade gezählt wird (vermeidet die Zeitmessung außerhalb von Anfragen)
+	static boolean active() {
+		return CURRENT.get() != null;
+	}
+
+	int getStatements() {
+		return this.statements;
+	}
+
+	long getNanos() {
+		return this.nanos;
+	}
+
+	long getRows() {
+		return this.rows;
+	}
+
+	// Bisherige Haltezeit; eine noch offene Verbindung zählt bis jetzt
+	long getConnectionNanos() {
+		return this.openConnections > 0 ? this.connectionNanos + System.nanoTime() - this.openSince
+				: this.connectionNanos;
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// DataSource-Proxy, der ausgeführte Anweisungen, JDBC-Zeit, gelesene Zeilen und die Haltezeit der Verbindungen
+// in SqlStatementStats zählt
+// Verbindungen, Statements und ResultSets werden mit JDK-Proxies umhüllt; unwrap() reicht an Hikari durch,
+// damit Pool-Metriken und Health-Check weiter die HikariDataSource finden
+class SqlStatementStatsDataSource extends DelegatingDataSource {
+
+	SqlStatementStatsDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrapConnection(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrapConnection(super.getConnection(username, password));
+	}
+
+	private static Connection wrapConnection(Connection target) {
+		return (Connection) Proxy.newProxyInstance(SqlStatementStatsDataSource.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new Handler(target, SqlStatementStats.connectionAcquired()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T wrap(Class<T> type, T target) {
+		return (T) Proxy.newProxyInstance(SqlStatementStatsDataSource.class.getClassLoader(), new Class<?>[] { type },
+				new Handler(target, null));
+	}
+
+	// Ein Handler für alle drei Ebenen; die Art ergibt sich aus dem umhüllten Objekt
+	private static final class Handler implements InvocationHandler {
+
+		private final Object target;
+
+		// Zählung, während der die Verbindung geholt wurde; null für Statements, ResultSets und außerhalb von Anfragen
+		private SqlStatementStats connectionStats;
+
+		private Handler(Object target, SqlStatementStats connectionStats) {
+			this.target = target;
+			this.connectionStats = connectionStats;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (this.target instanceof ResultSet && name.equals("next") && SqlStatementStats.active()) {
+				long start = System.nanoTime();
+				boolean row = (boolean) call(method, args);
+				SqlStatementStats.fetch(System.nanoTime() - start, row);
+				return row;
+			}
+			if (this.target instanceof Statement && name.startsWith("execute") && SqlStatementStats.active()) {
+				long start = System.nanoTime();
+				Object result = call(method, args);
+				SqlStatementStats.statement(System.nanoTime() - start);
+				return wrapResult(method, result);
+			}
+			if (name.equals("close") && this.connectionStats != null) {
+				try {
+					return call(method, args);
+				}
+				finally {
+					this.connectionStats.connectionReleased();
+					this.connectionStats = null;
+				}
+			}
+			return wrapResult(method, call(method, args));
+		}
+
+		// Statements einer Verbindung und ResultSets eines Statements werden ebenfalls gezählt
+		private static Object wrapResult(Method method, Object result) {
+			if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+				return wrap(castType(method.getReturnType()), (Statement) result);
+			}
+			if (result instanceof ResultSet resultSet && method.getReturnType() == ResultSet.class) {
+				return wrap(ResultSet.class, resultSet);
+			}
+			return result;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Class<Statement> castType(Class<?> type) {
+			return (Class<Statement>) type;
+		}
+
+		private Object call(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+	}
+
+}
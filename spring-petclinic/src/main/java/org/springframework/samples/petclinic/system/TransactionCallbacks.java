@@ -0,0 +1,29 @@
+package org.springframework.samples.petclinic.system;
+
+// Importiert benötigte Klassen
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Rückrufe zum Ende der laufenden Transaktion, z.B. für Indizes und Caches, die erst den festgeschriebenen Stand sehen dürfen
+public final class TransactionCallbacks {
+
+	private TransactionCallbacks() {
+	}
+
+	// Führt die Aktion nach dem Commit der laufenden Transaktion aus, ohne Transaktion sofort
+	// Nach einem Rollback unterbleibt sie, und ein paralleler Leser kann den alten Stand nicht mehr in einen Cache legen
+	public static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		}
+		else {
+			action.run();
+		}
+	}
+
+}
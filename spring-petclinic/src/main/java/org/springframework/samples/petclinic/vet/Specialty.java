@@ -1,15 +1,25 @@
 package org.springframework.samples.petclinic.vet;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.samples.petclinic.model.NamedEntity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 
 // Die Klasse Specialty repräsentiert eine Spezialisierung oder ein Fachgebiet das einem Tierarzt zugeordnet werden kann.
 // Sie erbt von NamedEntity, das einen Namen enthält.
 @Entity
+@EntityListeners(VetCacheInvalidationListener.class)
 @Table(name = "specialties")
+// Spezialisierungen sind Stammdaten und liegen im Second-Level-Cache (Region "specialties")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Specialty.CACHE_REGION)
 public class Specialty extends NamedEntity {
-  // Keine zusätzlichen Felder oder Methoden erforderlich,
-  // da alle benötigten Eigenschaften von NamedEntity geerbt werden.
+
+	// Name der Cache-Region für Spezialisierungen
+	public static final String CACHE_REGION = "specialties";
+
 }
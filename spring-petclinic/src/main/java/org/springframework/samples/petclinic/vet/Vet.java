@@ -1,70 +1,114 @@
 package org.springframework.samples.petclinic.vet;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.samples.petclinic.model.Person;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.xml.bind.annotation.XmlElement;
 
 // Die Klasse Vet repräsentiert einen Tierarzt in der Anwendung.
 // Sie erbt von Person und fügt zusätzliche Eigenschaften wie Spezialisierungen hinzu.
 @Entity
+@EntityListeners(VetCacheInvalidationListener.class)
 @Table(name = "vets")
+// Tierärzte und ihre Spezialisierungen liegen im Second-Level-Cache (Regionen "vets" und "vetSpecialties")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Vet.CACHE_REGION)
 public class Vet extends Person {
 
+	// Name der Cache-Region für Tierärzte
+	public static final String CACHE_REGION = "vets";
+
+	// Name der Cache-Region für die Zuordnung Tierarzt -> Spezialisierungen
+	public static final String SPECIALTIES_CACHE_REGION = "vetSpecialties";
+
 	// Ein Set von Spezialisierungen, die diesem Tierarzt zugeordnet sind.
 	// Verwenden von @ManyToMany, da ein Tierarzt mehrere Spezialisierungen haben
 	// kann und eine Spezialisierung mehreren Tierärzten zugeordnet sein kann.
 	@ManyToMany(fetch = FetchType.EAGER)
 	@JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"), inverseJoinColumns = @JoinColumn(name = "specialty_id"))
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SPECIALTIES_CACHE_REGION)
 	private Set<Specialty> specialties;
 
-	// Gibt das interne Set von Spezialisierungen zurück.
-	// Initialisiert das Set bei Bedarf.
+	// Reihenfolge von getSpecialties: nach Namen, ohne Groß-/Kleinschreibung, fehlende Namen zuletzt
+	private static final Comparator<Specialty> BY_NAME = Comparator.comparing(Specialty::getName,
+			Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+	// Nach Namen sortierte, unveränderliche Liste der Spezialisierungen
+	// Wird beim Laden bzw. beim ersten Aufruf von getSpecialties aufgebaut, statt bei jedem Aufruf (Tierarztliste,
+	// JSON/XML) die Menge zu kopieren und per Reflection zu sortieren; jede mögliche Änderung der Menge verwirft sie
+	@Transient
+	private List<Specialty> sortedSpecialties;
+
+	// Gibt das interne, veränderbare Set von Spezialisierungen zurück.
+	// Initialisiert das Set bei Bedarf. Der Aufrufer kann die Menge ändern, die sortierte Liste wird daher verworfen.
 	protected Set<Specialty> getSpecialtiesInternal() {
-		if (this.specialties == null) {
-			this.specialties = new HashSet<>();
-		}
-		// Gibt das Set von Spezialisierungen zurück.
-		return this.specialties;
+		this.sortedSpecialties = null;
+		return specialties();
 	}
 
 	// Setzt das interne Set von Spezialisierungen.
 	protected void setSpecialtiesInternal(Set<Specialty> specialties) {
 		this.specialties = specialties;
+		this.sortedSpecialties = null;
 	}
 
 	// Gibt eine unveränderliche Liste der Spezialisierungen zurück, sortiert nach
 	// dem Namen der Spezialisierung.
 	@XmlElement
 	public List<Specialty> getSpecialties() {
-		List<Specialty> sortedSpecs = new ArrayList<>(getSpecialtiesInternal());
-		// Sortiert die Liste der Spezialisierungen nach ihrem Namen
-		PropertyComparator.sort(sortedSpecs, new MutableSortDefinition("name", true, true));
-		// Gibt eine unveränderliche Liste zurück, um die Kapselung zu wahren
-		return Collections.unmodifiableList(sortedSpecs);
+		List<Specialty> sorted = this.sortedSpecialties;
+		if (sorted == null) {
+			sorted = sort(specialties());
+			this.sortedSpecialties = sorted;
+		}
+		return sorted;
+	}
+
+	// Baut die sortierte Liste nach dem Laden einmal auf (auch bei Treffern im Second-Level-Cache)
+	@PostLoad
+	void sortSpecialties() {
+		this.sortedSpecialties = sort(specialties());
 	}
 
 	// Gibt die Anzahl der Spezialisierungen dieses Tierarztes zurück.
 	public int getNrOfSpecialties() {
-		return getSpecialtiesInternal().size();
+		return specialties().size();
 	}
 
 	// Fügt diesem Tierarzt eine neue Spezialisierung hinzu.
 	public void addSpecialty(Specialty specialty) {
-		getSpecialtiesInternal().add(specialty);
+		if (specialties().add(specialty)) {
+			this.sortedSpecialties = null;
+		}
+	}
+
+	// Lesender Zugriff auf das Set, initialisiert es bei Bedarf
+	private Set<Specialty> specialties() {
+		if (this.specialties == null) {
+			this.specialties = new HashSet<>();
+		}
+		return this.specialties;
+	}
+
+	private static List<Specialty> sort(Collection<Specialty> specialties) {
+		return specialties.stream().sorted(BY_NAME).toList();
 	}
 
 }
@@ -0,0 +1,19 @@
+package org.springframework.samples.petclinic.vet;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Component;
+
+// Schnittstelle zum Leeren der Tierarzt-Caches
+// Wird nach Änderungen an Tierärzten oder Spezialisierungen aufgerufen (siehe VetCacheInvalidationListener)
+// und kann auch von außen genutzt werden, z.B. nach Datenimporten direkt über SQL
+@Component
+public class VetCacheEvictor {
+
+	// Leert die Liste aller Tierärzte und alle gecachten Seiten
+	@CacheEvict(cacheNames = { VetRepository.VETS_CACHE, VetRepository.VET_PAGES_CACHE }, allEntries = true)
+	public void evictAll() {
+		// Die Arbeit erledigt die @CacheEvict-Annotation
+	}
+
+}
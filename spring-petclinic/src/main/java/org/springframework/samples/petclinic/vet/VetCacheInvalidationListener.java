@@ -0,0 +1,50 @@
+package org.springframework.samples.petclinic.vet;
+
+// Importiert benötigte Klassen und Annotationen
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.samples.petclinic.system.CacheInvalidationBus;
+import org.springframework.samples.petclinic.system.TransactionCallbacks;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA-Entity-Listener für Vet und Specialty, der die Tierarzt-Caches bei Änderungen leert
+// Wird von Hibernate über den Spring-Bean-Container erzeugt
+class VetCacheInvalidationListener {
+
+	private final ObjectProvider<VetCacheEvictor> evictor;
+
+	// Verteilt die Invalidierung an die anderen Instanzen; optional (petclinic.cache.invalidation.bus)
+	private final ObjectProvider<CacheInvalidationBus> bus;
+
+	VetCacheInvalidationListener(ObjectProvider<VetCacheEvictor> evictor, ObjectProvider<CacheInvalidationBus> bus) {
+		this.evictor = evictor;
+		this.bus = bus;
+	}
+
+	// Neuer, geänderter oder gelöschter Tierarzt bzw. Spezialisierung
+	// Die anderen Instanzen leeren die Spring-Caches "vets" und "vetPages" sowie die Hibernate-Regionen der Entität
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	void changed(Object entity) {
+		// Erst nach dem Commit leeren, damit kein paralleler Leser den alten Stand erneut in den Cache legt
+		TransactionCallbacks.afterCommit(() -> {
+			this.evictor.ifAvailable(VetCacheEvictor::evictAll);
+			this.bus.ifAvailable(invalidations -> {
+				invalidations.publish(CacheInvalidation.region(VetRepository.VETS_CACHE));
+				invalidations.publish(CacheInvalidation.region(VetRepository.VET_PAGES_CACHE));
+				if (entity instanceof Specialty) {
+					invalidations.publish(CacheInvalidation.region(Specialty.CACHE_REGION));
+				}
+				else {
+					// Vet.CACHE_REGION heißt wie der Spring-Cache "vets" und wurde oben schon mit invalidiert
+					invalidations.publish(CacheInvalidation.region(Vet.SPECIALTIES_CACHE_REGION));
+				}
+			});
+		});
+	}
+
+}
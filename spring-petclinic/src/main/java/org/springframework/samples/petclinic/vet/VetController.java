@@ -2,9 +2,14 @@ package org.springframework.samples.petclinic.vet;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.samples.petclinic.model.PersonKeyset;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,18 +20,35 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @Controller
 class VetController {
 
+	// Anzahl der Elemente pro Seite
+	private static final int PAGE_SIZE = 5;
+
 	private final VetRepository vetRepository;
 
-	// Konstruktor-Injektion des VetRepository
+	// Ob die Tierarztliste Keyset-Paginierung statt OFFSET-Seiten verwendet
+	private final boolean keyset;
+
+	// Obergrenze der günstigen Zählung im Keyset-Modus (0 = keine Gesamtzahl anzeigen)
+	private final int countLimit;
+
+	// Konstruktor-Injektion des VetRepository und der Paginierungs-Einstellungen
 	// Das Repository wird verwendet, um auf Tierarzt-Daten zuzugreifen.
-	public VetController(VetRepository clinicService) {
+	public VetController(VetRepository clinicService, @Value("${petclinic.pagination.keyset:false}") boolean keyset,
+			@Value("${petclinic.pagination.count-limit:1000}") int countLimit) {
 		this.vetRepository = clinicService;
+		this.keyset = keyset;
+		this.countLimit = countLimit;
 	}
 
 	// Behandelt GET-Anfragen an "/vets.html".
 	// Zeigt eine paginierte Liste der Tierärzte an.
 	@GetMapping("/vets.html")
-	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model) {
+	public String showVetList(@RequestParam(defaultValue = "1") int page, @RequestParam(required = false) String cursor,
+			Model model) {
+		// Keyset-Modus: per Konfiguration oder sobald ein Cursor übergeben wird
+		if (this.keyset || cursor != null) {
+			return showVetListByKeyset(cursor, model);
+		}
 		// Erzeugt eine Instanz von Vets, die eine Liste von Tierärzten enthält
 		Vets vets = new Vets();
 		// Holt die paginierte Liste von Tierärzten für die angegebene Seite
@@ -39,8 +61,8 @@ class VetController {
 
 	// Fügt dem Modell Paginierungsinformationen und die Liste der Tierärzte hinzu
 	private String addPaginationModel(int page, Page<Vet> paginated, Model model) {
-		// Holt den Inhalt (Liste von Tierärzten) aus der paginierten Seite
-		List<Vet> listVets = paginated.getContent();
+		// Holt den Inhalt (Liste von Tierärzten) aus der paginierten Seite, als fertige Zeilen für die View
+		List<VetRow> listVets = paginated.map(VetRow::of).getContent();
 		// Fügt die aktuelle Seite zum Modell hinzu
 		model.addAttribute("currentPage", page);
 		// Fügt die Gesamtanzahl der Seiten zum Modell hinzu
@@ -55,13 +77,29 @@ class VetController {
 
 	// Findet eine paginierte Liste von Tierärzten für die angegebene Seite.
 	private Page<Vet> findPaginated(int page) {
-		int pageSize = 5; // Anzahl der Elemente pro Seite
 		// Erstellt ein Pageable-Objekt mit der aktuellen Seite und der Seitengröße
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
 		// Ruft die paginierte Liste von Tierärzten aus dem Repository ab
 		return vetRepository.findAll(pageable);
 	}
 
+	// Zeigt die Tierarztliste mit Keyset-Paginierung an: liest ab dem Cursor (last_name, id) ohne OFFSET.
+	private String showVetListByKeyset(String cursor, Model model) {
+		KeysetScrollPosition position = PersonKeyset.position(cursor);
+		Window<Vet> window = this.vetRepository.findBy(position, PersonKeyset.SORT, Limit.of(PAGE_SIZE));
+		model.addAttribute("keyset", true);
+		model.addAttribute("listVets", window.map(VetRow::of).getContent());
+		model.addAttribute("nextCursor", PersonKeyset.nextToken(window, position));
+		model.addAttribute("previousCursor", PersonKeyset.previousToken(window, position));
+		// Optionale, nach oben begrenzte Gesamtzahl statt eines exakten count(*)
+		if (this.countLimit > 0) {
+			long total = this.vetRepository.countUpTo(this.countLimit + 1);
+			model.addAttribute("totalItems", Math.min(total, this.countLimit));
+			model.addAttribute("totalCapped", total > this.countLimit);
+		}
+		return "vets/vetList";
+	}
+
 	// Behandelt GET-Anfragen an "/vets".
 	// Gibt eine Liste von Tierärzten als JSON oder XML zurück.
 	@GetMapping({ "/vets" })
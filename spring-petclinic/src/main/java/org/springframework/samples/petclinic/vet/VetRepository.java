@@ -1,25 +1,55 @@
 package org.springframework.samples.petclinic.vet;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 
+import jakarta.persistence.QueryHint;
+
 // Das VetRepository ist ein Interface, das den Datenzugriff für Vet-Entitäten ermöglicht.
 // Es erweitert das Repository-Interface von Spring Data und definiert Methoden, um alle Tierärzte abzurufen, entweder als Liste oder paginiert.
 public interface VetRepository extends Repository<Vet, Integer> {
-	// Ruft alle Tierärzte aus der Datenbank ab. Die Ergebnisse werden im Cache unter dem Schlüssel "vets" gespeichert, um die Leistung zu verbessern.
+
+	// Cache-Region für die vollständige Liste aller Tierärzte
+	String VETS_CACHE = "vets";
+
+	// Eigene Cache-Region für einzelne Seiten, da Ergebnistyp und Schlüssel sich von findAll() unterscheiden
+	String VET_PAGES_CACHE = "vetPages";
+
+	// Ruft alle Tierärzte aus der Datenbank ab. Die Ergebnisse werden im Cache "vets" gespeichert, um die Leistung zu verbessern.
+	// Nach Ablauf des Spring-Caches kommen die IDs aus dem Query-Cache und die Tierärzte aus dem Second-Level-Cache.
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
+	@Cacheable(VETS_CACHE)
+	@QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
 	Collection<Vet> findAll() throws DataAccessException;
 
-	// Ruft eine paginierte Liste von Tierärzten ab. Die Ergebnisse werden im Cache unter dem Schlüssel "vets" gespeichert, um die Leistung zu verbessern.
+	// Ruft eine paginierte Liste von Tierärzten ab. Jede Seite wird im Cache "vetPages" unter (Seite, Größe, Sortierung) gespeichert;
+	// ungepaginierte Abfragen werden nicht gecacht.
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
+	@Cacheable(cacheNames = VET_PAGES_CACHE, key = "#pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort",
+			condition = "#pageable.paged")
 	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
 
+	// Keyset-Paginierung: liest die Tierärzte ab einer Cursor-Position (last_name, id) ohne OFFSET und ohne count(*).
+	@Transactional(readOnly = true)
+	Window<Vet> findBy(ScrollPosition position, Sort sort, Limit limit) throws DataAccessException;
+
+	// Günstige Zählung für den Keyset-Modus: zählt höchstens 'cap' Tierärzte.
+	@Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM vets LIMIT :cap) capped", nativeQuery = true)
+	@Transactional(readOnly = true)
+	long countUpTo(@Param("cap") int cap) throws DataAccessException;
+
 }
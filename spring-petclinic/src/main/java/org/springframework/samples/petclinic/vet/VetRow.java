@@ -0,0 +1,40 @@
+package org.springframework.samples.petclinic.vet;
+
+// Importiert benötigte Klassen
+import java.util.List;
+
+// Schlanke, unveränderliche Zeile der Tierarztliste (vetList.html)
+// Enthält den Namen und die bereits sortierten Namen der Fachgebiete, damit die View keine Entität mehr berührt
+public class VetRow {
+
+	private final String firstName;
+
+	private final String lastName;
+
+	private final List<String> specialties;
+
+	private VetRow(String firstName, String lastName, List<String> specialties) {
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.specialties = List.copyOf(specialties);
+	}
+
+	// Baut die Zeile aus einem Tierarzt; die Fachgebiete werden eifrig mit ihm geladen
+	static VetRow of(Vet vet) {
+		return new VetRow(vet.getFirstName(), vet.getLastName(),
+				vet.getSpecialties().stream().map(Specialty::getName).toList());
+	}
+
+	public String getFirstName() {
+		return this.firstName;
+	}
+
+	public String getLastName() {
+		return this.lastName;
+	}
+
+	public List<String> getSpecialties() {
+		return this.specialties;
+	}
+
+}
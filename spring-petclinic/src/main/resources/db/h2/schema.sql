@@ -5,17 +5,25 @@ DROP TABLE visits IF EXISTS;
 DROP TABLE pets IF EXISTS;
 DROP TABLE types IF EXISTS;
 DROP TABLE owners IF EXISTS;
+DROP TABLE cache_invalidations IF EXISTS;
+DROP TABLE replication_heartbeat IF EXISTS;
+DROP SEQUENCE IF EXISTS vets_seq;
+DROP SEQUENCE IF EXISTS specialties_seq;
+DROP SEQUENCE IF EXISTS types_seq;
+DROP SEQUENCE IF EXISTS owners_seq;
+DROP SEQUENCE IF EXISTS pets_seq;
+DROP SEQUENCE IF EXISTS visits_seq;
 
 
 CREATE TABLE vets (
-  id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INTEGER PRIMARY KEY,
   first_name VARCHAR(30),
   last_name  VARCHAR(30)
 );
 CREATE INDEX vets_last_name ON vets (last_name);
 
 CREATE TABLE specialties (
-  id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id   INTEGER PRIMARY KEY,
   name VARCHAR(80)
 );
 CREATE INDEX specialties_name ON specialties (name);
@@ -28,13 +36,13 @@ ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_vets FOREIGN KEY (
 ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_specialties FOREIGN KEY (specialty_id) REFERENCES specialties (id);
 
 CREATE TABLE types (
-  id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id   INTEGER PRIMARY KEY,
   name VARCHAR(80)
 );
 CREATE INDEX types_name ON types (name);
 
 CREATE TABLE owners (
-  id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INTEGER PRIMARY KEY,
   first_name VARCHAR(30),
   last_name  VARCHAR_IGNORECASE(30),
   address    VARCHAR(255),
@@ -44,8 +52,8 @@ CREATE TABLE owners (
 CREATE INDEX owners_last_name ON owners (last_name);
 
 CREATE TABLE pets (
-  id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-  name       VARCHAR(30),
+  id         INTEGER PRIMARY KEY,
+  name       VARCHAR_IGNORECASE(30),
   birth_date DATE,
   type_id    INTEGER NOT NULL,
   owner_id   INTEGER
@@ -53,12 +61,38 @@ CREATE TABLE pets (
 ALTER TABLE pets ADD CONSTRAINT fk_pets_owners FOREIGN KEY (owner_id) REFERENCES owners (id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_types FOREIGN KEY (type_id) REFERENCES types (id);
 CREATE INDEX pets_name ON pets (name);
+CREATE UNIQUE INDEX pets_owner_name ON pets (owner_id, name);
 
 CREATE TABLE visits (
-  id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id          INTEGER PRIMARY KEY,
   pet_id      INTEGER,
   visit_date  DATE,
   description VARCHAR(255)
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
 CREATE INDEX visits_pet_id ON visits (pet_id);
+
+-- IDs of new rows come from pooled sequences (INCREMENT BY = allocation size 50), so Hibernate can batch inserts;
+-- they start above the IDs of the sample data. The id columns have no identity default: every insert, also native
+-- SQL, has to take its ID from the sequence, otherwise the two ranges would collide
+CREATE SEQUENCE vets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE specialties_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE types_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE owners_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE pets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE visits_seq START WITH 100 INCREMENT BY 50;
+
+-- Cache invalidations broadcast between petclinic instances (petclinic.cache.invalidation.bus=jdbc)
+CREATE TABLE cache_invalidations (
+  id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  node       VARCHAR(36) NOT NULL,
+  region     VARCHAR(80) NOT NULL,
+  cache_key  INTEGER,
+  created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX cache_invalidations_created_at ON cache_invalidations (created_at);
+
+CREATE TABLE replication_heartbeat (
+  id   INTEGER PRIMARY KEY,
+  beat TIMESTAMP NOT NULL
+);
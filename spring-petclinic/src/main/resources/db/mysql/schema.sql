@@ -1,12 +1,12 @@
 CREATE TABLE IF NOT EXISTS vets (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
   INDEX(last_name)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS specialties (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   name VARCHAR(80),
   INDEX(name)
 ) engine=InnoDB;
@@ -20,13 +20,13 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS types (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   name VARCHAR(80),
   INDEX(name)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS owners (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
   address VARCHAR(255),
@@ -36,20 +36,65 @@ CREATE TABLE IF NOT EXISTS owners (
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS pets (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   name VARCHAR(30),
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
   owner_id INT(4) UNSIGNED,
   INDEX(name),
+  UNIQUE INDEX pets_owner_name (owner_id, (LOWER(name))),
   FOREIGN KEY (owner_id) REFERENCES owners(id),
   FOREIGN KEY (type_id) REFERENCES types(id)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS visits (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   pet_id INT(4) UNSIGNED,
   visit_date DATE,
   description VARCHAR(255),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
+
+-- MySQL has no sequences, so Hibernate emulates each pooled sequence (allocation size 50) with a one-row table;
+-- new rows get IDs from there so inserts can be batched. The counters start above the IDs of the sample data,
+-- for an existing database set next_val past MAX(id) first. The id columns have no AUTO_INCREMENT: every insert,
+-- also native SQL, has to take its ID from these tables, otherwise the two ranges would collide
+CREATE TABLE IF NOT EXISTS vets_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
+INSERT INTO vets_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM vets_seq);
+CREATE TABLE IF NOT EXISTS specialties_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
+INSERT INTO specialties_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM specialties_seq);
+CREATE TABLE IF NOT EXISTS types_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
+INSERT INTO types_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM types_seq);
+CREATE TABLE IF NOT EXISTS owners_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
+INSERT INTO owners_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM owners_seq);
+CREATE TABLE IF NOT EXISTS pets_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
+INSERT INTO pets_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM pets_seq);
+CREATE TABLE IF NOT EXISTS visits_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
+INSERT INTO visits_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM visits_seq);
+
+-- Cache invalidations broadcast between petclinic instances (petclinic.cache.invalidation.bus=jdbc)
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  node VARCHAR(36) NOT NULL,
+  region VARCHAR(80) NOT NULL,
+  cache_key INT(4) UNSIGNED,
+  created_at DATETIME(3) NOT NULL,
+  INDEX(created_at)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  beat DATETIME(3) NOT NULL
+) engine=InnoDB;
@@ -1,12 +1,12 @@
 CREATE TABLE IF NOT EXISTS vets (
-  id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INT PRIMARY KEY,
   first_name TEXT,
   last_name  TEXT
 );
 CREATE INDEX ON vets (last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
-  id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id   INT PRIMARY KEY,
   name TEXT
 );
 CREATE INDEX ON specialties (name);
@@ -18,13 +18,13 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 );
 
 CREATE TABLE IF NOT EXISTS types (
-  id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id   INT PRIMARY KEY,
   name TEXT
 );
 CREATE INDEX ON types (name);
 
 CREATE TABLE IF NOT EXISTS owners (
-  id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INT PRIMARY KEY,
   first_name TEXT,
   last_name  TEXT,
   address    TEXT,
@@ -34,7 +34,7 @@ CREATE TABLE IF NOT EXISTS owners (
 CREATE INDEX ON owners (last_name);
 
 CREATE TABLE IF NOT EXISTS pets (
-  id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INT PRIMARY KEY,
   name       TEXT,
   birth_date DATE,
   type_id    INT NOT NULL REFERENCES types (id),
@@ -42,11 +42,39 @@ CREATE TABLE IF NOT EXISTS pets (
 );
 CREATE INDEX ON pets (name);
 CREATE INDEX ON pets (owner_id);
+CREATE UNIQUE INDEX IF NOT EXISTS pets_owner_name ON pets (owner_id, LOWER(name));
 
 CREATE TABLE IF NOT EXISTS visits (
-  id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id          INT PRIMARY KEY,
   pet_id      INT REFERENCES pets (id),
   visit_date  DATE,
   description TEXT
 );
 CREATE INDEX ON visits (pet_id);
+
+-- IDs of new rows come from pooled sequences (INCREMENT BY = allocation size 50), so Hibernate can batch inserts;
+-- they start above the IDs of the sample data. The id columns have no identity default: every insert, also native
+-- SQL, has to take its ID from the sequence, otherwise the two ranges would collide. For an existing database move
+-- them past MAX(id) first,
+-- e.g. SELECT setval('owners_seq', (SELECT MAX(id) FROM owners) + 50);
+CREATE SEQUENCE IF NOT EXISTS vets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS specialties_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS types_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS owners_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS pets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS visits_seq START WITH 100 INCREMENT BY 50;
+
+-- Cache invalidations broadcast between petclinic instances (petclinic.cache.invalidation.bus=jdbc)
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+  id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  node       VARCHAR(36) NOT NULL,
+  region     VARCHAR(80) NOT NULL,
+  cache_key  INT,
+  created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS cache_invalidations_created_at ON cache_invalidations (created_at);
+
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+  id   INT PRIMARY KEY,
+  beat TIMESTAMP NOT NULL
+);
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model HTTP load generator: requests are started at a fixed arrival rate, whether
+ * or not earlier requests have completed, and each latency is measured from the
+ * <em>intended</em> start time of its request. A server that stalls therefore shows up
+ * with the full queueing delay of every request scheduled during the stall, instead of
+ * hiding it by slowing the generator down (coordinated omission).
+ */
+class LoadGenerator {
+
+	// 1 µs to 1 min with 3 significant digits
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private final HttpClient client;
+
+	private final List<Route> routes;
+
+	private final int totalWeight;
+
+	LoadGenerator(HttpClient client, List<Route> routes) {
+		this.client = client;
+		this.routes = routes;
+		this.totalWeight = routes.stream().mapToInt(Route::weight).sum();
+	}
+
+	/**
+	 * Sends requests at the given rate for the given duration and waits for all of them
+	 * to complete.
+	 * @return the statistics per route name, in the order of the routes
+	 */
+	Map<String, RouteStats> run(double requestsPerSecond, Duration duration, long seed) throws InterruptedException {
+		Map<String, RouteStats> stats = new LinkedHashMap<>();
+		this.routes.forEach(route -> stats.put(route.name(), new RouteStats()));
+		SplittableRandom random = new SplittableRandom(seed);
+		long interval = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+		long count = (long) (requestsPerSecond * duration.toMillis() / 1000);
+		CountDownLatch pending = new CountDownLatch(Math.toIntExact(count));
+		long start = System.nanoTime();
+		for (long i = 0; i < count; i++) {
+			long intended = start + i * interval;
+			for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+				LockSupport.parkNanos(wait);
+			}
+			Route route = pick(random);
+			RouteStats routeStats = stats.get(route.name());
+			HttpRequest request = route.request().apply(random);
+			this.client.sendAsync(request, BodyHandlers.discarding()).whenComplete((response, failure) -> {
+				long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+				routeStats.record(micros, failure == null && response.statusCode() < 400);
+				pending.countDown();
+			});
+		}
+		if (!pending.await(1, TimeUnit.MINUTES)) {
+			throw new IllegalStateException(pending.getCount() + " requests still pending one minute after the run");
+		}
+		return stats;
+	}
+
+	private Route pick(SplittableRandom random) {
+		int value = random.nextInt(this.totalWeight);
+		for (Route route : this.routes) {
+			value -= route.weight();
+			if (value < 0) {
+				return route;
+			}
+		}
+		throw new IllegalStateException("No route for weight " + value);
+	}
+
+	/**
+	 * A named request template; {@code weight} is its share of the traffic.
+	 */
+	record Route(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+	}
+
+	/**
+	 * Latency histogram (in microseconds) and error count of one route.
+	 */
+	static class RouteStats {
+
+		private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+		private final AtomicLong errors = new AtomicLong();
+
+		void record(long micros, boolean success) {
+			this.histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+			if (!success) {
+				this.errors.incrementAndGet();
+			}
+		}
+
+		Histogram histogram() {
+			return this.histogram;
+		}
+
+		long errors() {
+			return this.errors.get();
+		}
+
+		double percentileMillis(double percentile) {
+			return this.histogram.getValueAtPercentile(percentile) / 1000.0;
+		}
+
+	}
+
+}
@@ -25,12 +25,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetCacheEvictor;
 import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 public class PetClinicIntegrationTests {
 
@@ -43,12 +52,58 @@ public class PetClinicIntegrationTests {
 	@Autowired
 	private RestTemplateBuilder builder;
 
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private VetCacheEvictor vetCacheEvictor;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
 	@Test
 	void testFindAll() throws Exception {
 		vets.findAll();
 		vets.findAll(); // served from cache
 	}
 
+	@Test
+	void testVetListAndPagesUseSeparateCaches() {
+		this.vetCacheEvictor.evictAll();
+		double hits = cacheHits(VetRepository.VET_PAGES_CACHE);
+
+		vets.findAll();
+		vets.findAll(PageRequest.of(0, 5));
+		vets.findAll(PageRequest.of(1, 5));
+		vets.findAll(PageRequest.of(0, 5)); // served from cache
+
+		assertThat(nativeCache(VetRepository.VETS_CACHE).estimatedSize()).isEqualTo(1);
+		assertThat(nativeCache(VetRepository.VET_PAGES_CACHE).estimatedSize()).isEqualTo(2);
+		assertThat(cacheHits(VetRepository.VET_PAGES_CACHE)).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void testVetChangeEvictsCaches() {
+		vets.findAll();
+		vets.findAll(PageRequest.of(0, 5));
+
+		String lastName = renameVet(1, "Renamed");
+		try {
+			assertThat(nativeCache(VetRepository.VETS_CACHE).estimatedSize()).isZero();
+			assertThat(nativeCache(VetRepository.VET_PAGES_CACHE).estimatedSize()).isZero();
+			assertThat(vets.findAll()).extracting(Vet::getLastName).contains("Renamed");
+		}
+		finally {
+			renameVet(1, lastName);
+		}
+	}
+
 	@Test
 	void testOwnerDetails() {
 		RestTemplate template = builder.rootUri("http://localhost:" + port).build();
@@ -56,6 +111,26 @@ public class PetClinicIntegrationTests {
 		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
 	}
 
+	private String renameVet(int id, String lastName) {
+		return this.transactionTemplate.execute(status -> {
+			Vet vet = this.entityManager.find(Vet.class, id);
+			String previous = vet.getLastName();
+			vet.setLastName(lastName);
+			return previous;
+		});
+	}
+
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+		com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = ((CaffeineCache) this.cacheManager
+			.getCache(name)).getNativeCache();
+		cache.cleanUp();
+		return cache;
+	}
+
+	private double cacheHits(String name) {
+		return this.meterRegistry.get("cache.gets").tag("cache", name).tag("result", "hit").functionCounter().count();
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(PetClinicApplication.class, args);
 	}
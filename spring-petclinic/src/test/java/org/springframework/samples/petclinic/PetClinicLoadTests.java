@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.LoadGenerator.Route;
+import org.springframework.samples.petclinic.LoadGenerator.RouteStats;
+import org.springframework.samples.petclinic.owner.OwnerDataGenerator;
+
+/**
+ * Drives the MVC endpoints of the running application (embedded H2, seeded by
+ * {@link OwnerDataGenerator}) at a fixed arrival rate and checks the p99/p999 latency of
+ * every route against {@code loadtest-budgets.properties}. Percentile distributions are
+ * written to {@code target/loadtest/<route>.hgrm} for plotting. Disabled by default; run
+ * with {@code ./mvnw test -P loadtest} and optionally
+ * {@code -Dpetclinic.loadtest.rate=200 -Dpetclinic.loadtest.duration=60 -Dpetclinic.loadtest.owners=100000}.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "petclinic.loadtest", matches = "true")
+class PetClinicLoadTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(PetClinicLoadTests.class);
+
+	private static final String[] LAST_NAME_PREFIXES = { "Smith", "Davis", "Lee", "Hill", "Ash", "Mor", "Quinw" };
+
+	private static final String[] PET_TYPES = { "bird", "cat", "dog", "hamster", "lizard", "snake" };
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	private OwnerDataGenerator generator;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final AtomicInteger petNames = new AtomicInteger();
+
+	@Test
+	void endpointsStayWithinLatencyBudgets() throws Exception {
+		int owners = Integer.getInteger("petclinic.loadtest.owners", 10_000);
+		double rate = Double.parseDouble(System.getProperty("petclinic.loadtest.rate", "50"));
+		Duration warmup = Duration.ofSeconds(Long.getLong("petclinic.loadtest.warmup", 15));
+		Duration duration = Duration.ofSeconds(Long.getLong("petclinic.loadtest.duration", 30));
+
+		int firstOwnerId = this.generator.generate(OwnerDataGenerator.Volume.of(owners, 2, 2)).firstOwnerId();
+		List<int[]> pets = this.jdbcTemplate.query("SELECT owner_id, id FROM pets WHERE owner_id >= ?",
+				(rs, row) -> new int[] { rs.getInt(1), rs.getInt(2) }, firstOwnerId);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			HttpClient client = HttpClient.newBuilder().executor(executor).build();
+			LoadGenerator load = new LoadGenerator(client, routes(firstOwnerId, owners, pets));
+			load.run(rate, warmup, 1);
+			Map<String, RouteStats> stats = load.run(rate, duration, 2);
+			report(stats, rate, duration);
+			assertThat(violations(stats)).isEmpty();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Route> routes(int firstOwnerId, int owners, List<int[]> pets) {
+		return List.of(new Route("owners-search", 30, random -> get("/owners?lastName=" + pick(random, LAST_NAME_PREFIXES))),
+				new Route("owner-details", 30, random -> get("/owners/" + (firstOwnerId + random.nextInt(owners)))),
+				new Route("vets-html", 10, random -> get("/vets.html?page=" + (1 + random.nextInt(2)))),
+				new Route("vets-json", 10,
+						random -> HttpRequest.newBuilder(uri("/vets")).header("Accept", "application/json").build()),
+				new Route("pet-create", 10, random -> {
+					int ownerId = firstOwnerId + random.nextInt(owners);
+					return post("/owners/" + ownerId + "/pets/new", "name=Load" + this.petNames.incrementAndGet()
+							+ "&birthDate=2020-01-01&type=" + pick(random, PET_TYPES));
+				}), new Route("visit-create", 10, random -> {
+					int[] pet = pets.get(random.nextInt(pets.size()));
+					return post("/owners/" + pet[0] + "/pets/" + pet[1] + "/visits/new",
+							"date=2024-01-01&description=" + URLEncoder.encode("load test", StandardCharsets.UTF_8));
+				}));
+	}
+
+	private List<String> violations(Map<String, RouteStats> stats) throws IOException {
+		Properties budgets = PropertiesLoaderUtils.loadProperties(new ClassPathResource("loadtest-budgets.properties"));
+		List<String> violations = new ArrayList<>();
+		stats.forEach((route, routeStats) -> {
+			if (routeStats.errors() > 0) {
+				violations.add(route + ": " + routeStats.errors() + " failed requests");
+			}
+			for (String percentile : new String[] { "p99", "p999" }) {
+				String budget = budgets.getProperty(route + "." + percentile);
+				double actual = routeStats.percentileMillis(percentile.equals("p99") ? 99 : 99.9);
+				if (budget != null && actual > Double.parseDouble(budget)) {
+					violations.add(route + ": " + percentile + " " + actual + " ms > " + budget + " ms");
+				}
+			}
+		});
+		return violations;
+	}
+
+	private void report(Map<String, RouteStats> stats, double rate, Duration duration) throws IOException {
+		Path directory = Files.createDirectories(Path.of("target", "loadtest"));
+		StringBuilder table = new StringBuilder();
+		table.append(String.format("%.0f requests/s for %d s%n", rate, duration.toSeconds()));
+		table.append(String.format("%-15s %8s %8s %10s %10s %10s %10s", "route", "count", "errors", "p50 ms", "p99 ms",
+				"p999 ms", "max ms"));
+		for (Map.Entry<String, RouteStats> entry : stats.entrySet()) {
+			RouteStats routeStats = entry.getValue();
+			table.append(String.format("%n%-15s %8d %8d %10.1f %10.1f %10.1f %10.1f", entry.getKey(),
+					routeStats.histogram().getTotalCount(), routeStats.errors(), routeStats.percentileMillis(50),
+					routeStats.percentileMillis(99), routeStats.percentileMillis(99.9),
+					routeStats.histogram().getMaxValue() / 1000.0));
+			try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")),
+					false, StandardCharsets.UTF_8)) {
+				// values in µs, scaled to ms in the output
+				routeStats.histogram().outputPercentileDistribution(out, 1000.0);
+			}
+		}
+		logger.info("Load test results\n{}", table);
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(uri(path)).GET().build();
+	}
+
+	private HttpRequest post(String path, String form) {
+		return HttpRequest.newBuilder(uri(path))
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.POST(BodyPublishers.ofString(form))
+			.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + this.port + path);
+	}
+
+	private static String pick(SplittableRandom random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+}
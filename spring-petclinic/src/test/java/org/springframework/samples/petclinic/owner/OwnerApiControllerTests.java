@@ -0,0 +1,172 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.system.ApiExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Integration tests of the asynchronous JSON API in {@link OwnerApiController}. The
+ * {@link ApiExecutor} has a single thread and no queue, so that a blocked task saturates it.
+ */
+@SpringBootTest(properties = { "petclinic.api.executor.threads=1", "petclinic.api.executor.queue-capacity=0",
+		"petclinic.api.retry-after=2s" })
+@AutoConfigureMockMvc
+class OwnerApiControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ApiExecutor executor;
+
+	@Test
+	void findsOwnersWithPetNames() throws Exception {
+		perform(get("/api/owners").param("lastName", "Davis")).andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalItems").value(2))
+			.andExpect(jsonPath("$.owners[?(@.firstName == 'Betty')].pets[0]").value("Basil"));
+	}
+
+	@Test
+	void showsOwnerWithPetsAndVisits() throws Exception {
+		perform(get("/api/owners/{ownerId}", 6)).andExpect(status().isOk())
+			.andExpect(jsonPath("$.lastName").value("Coleman"))
+			.andExpect(jsonPath("$.pets.length()").value(2))
+			.andExpect(jsonPath("$.pets[0].name").value("Max"))
+			.andExpect(jsonPath("$.pets[0].visits.length()").value(2));
+	}
+
+	@Test
+	void answersUnknownOwnerWithNotFound() throws Exception {
+		perform(get("/api/owners/{ownerId}", 9999)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void createsOwner() throws Exception {
+		perform(post("/api/owners").contentType(MediaType.APPLICATION_JSON)
+			.content("{\"firstName\":\"Sam\",\"lastName\":\"Schultz\",\"address\":\"4, Evans Street\","
+					+ "\"city\":\"Wollongong\",\"telephone\":\"4444444444\"}"))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.id").isNumber());
+	}
+
+	@Test
+	void rejectsInvalidOwner() throws Exception {
+		perform(post("/api/owners").contentType(MediaType.APPLICATION_JSON)
+			.content("{\"firstName\":\"Sam\",\"lastName\":\"Schultz\",\"telephone\":\"phone\"}"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.errors.address").value("NotBlank"))
+			.andExpect(jsonPath("$.errors.telephone").value("Digits"));
+	}
+
+	@Test
+	void addsAndUpdatesPet() throws Exception {
+		MvcResult added = perform(post("/api/owners/{ownerId}/pets", 3).contentType(MediaType.APPLICATION_JSON)
+			.content("{\"name\":\"Nemo\",\"birthDate\":\"2020-01-02\",\"type\":\"bird\"}"))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.type").value("bird"))
+			.andReturn();
+		Integer petId = JsonPath.read(added.getResponse().getContentAsString(), "$.id");
+
+		perform(put("/api/owners/{ownerId}/pets/{petId}", 3, petId).contentType(MediaType.APPLICATION_JSON)
+			.content("{\"name\":\"Nemo\",\"birthDate\":\"2020-01-03\"}"))
+			.andExpect(status().isOk());
+		perform(get("/api/owners/{ownerId}", 3))
+			.andExpect(jsonPath("$.pets[?(@.name == 'Nemo')].birthDate").value("2020-01-03"))
+			.andExpect(jsonPath("$.pets[?(@.name == 'Nemo')].type").value("bird"));
+	}
+
+	@Test
+	void rejectsDuplicatePetName() throws Exception {
+		// owner 6 already has a pet named Max
+		perform(post("/api/owners/{ownerId}/pets", 6).contentType(MediaType.APPLICATION_JSON)
+			.content("{\"name\":\"max\",\"birthDate\":\"2020-01-02\",\"type\":\"dog\"}"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.errors.name").value("duplicate"));
+	}
+
+	@Test
+	void booksVisit() throws Exception {
+		perform(post("/api/owners/{ownerId}/pets/{petId}/visits", 6, 8).contentType(MediaType.APPLICATION_JSON)
+			.content("{\"date\":\"2024-01-02\",\"description\":\"booked\"}"))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.description").value("booked"));
+		// pet 8 belongs to owner 6
+		perform(post("/api/owners/{ownerId}/pets/{petId}/visits", 1, 8).contentType(MediaType.APPLICATION_JSON)
+			.content("{\"description\":\"booked\"}"))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void answersWithTooManyRequestsWhenExecutorIsSaturated() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Boolean> blocking = this.executor.submit(() -> await(release));
+		try {
+			this.mockMvc.perform(get("/api/owners/{ownerId}", 6))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "2"));
+		}
+		finally {
+			release.countDown();
+		}
+		assertThat(blocking.get(10, TimeUnit.SECONDS)).isTrue();
+		perform(get("/api/owners/{ownerId}", 6)).andExpect(status().isOk());
+	}
+
+	// Performs an asynchronous request and dispatches its result
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		MvcResult started = this.mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+		return this.mockMvc.perform(asyncDispatch(started));
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.samples.petclinic.system.CacheInvalidationBus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests for {@link OwnerCache}: read-only pages are served from the cache, every write
+ * evicts the owner, and callers only ever see private copies or the immutable read view.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class OwnerCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerCache cache;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private ApplicationContext context;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void ownerDetailsAreServedFromCache() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 3)).andExpect(status().isOk());
+		this.statistics.clear();
+
+		this.mockMvc.perform(get("/owners/{ownerId}", 3))
+			.andExpect(status().isOk())
+			.andExpect(content().string(Matchers.containsString("Jewel")));
+		assertThat(this.statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void visitBookingEvictsOwner() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 6)).andExpect(status().isOk());
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 6, 8).param("date", "2024-03-04")
+				.param("description", "cached visit"))
+			.andExpect(status().is3xxRedirection());
+
+		this.mockMvc.perform(get("/owners/{ownerId}", 6))
+			.andExpect(content().string(Matchers.containsString("cached visit")));
+	}
+
+	@Test
+	void ownerUpdateEvictsOwner() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 2)).andExpect(status().isOk());
+
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", 2).param("firstName", "Betty")
+				.param("lastName", "Davis")
+				.param("address", "638 Cardinal Ave.")
+				.param("city", "Sun Prairie")
+				.param("telephone", "6085550000"))
+			.andExpect(status().is3xxRedirection());
+
+		this.mockMvc.perform(get("/owners/{ownerId}", 2))
+			.andExpect(content().string(Matchers.containsString("6085550000")));
+	}
+
+	@Test
+	void everyHitReturnsPrivateCopy() {
+		Owner first = this.cache.get(10);
+		first.setLastName("Changed");
+		first.getPets().get(0).addVisit(new Visit());
+
+		Owner second = this.cache.get(10);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getLastName()).isEqualTo("Estaban");
+		assertThat(second.getPets().get(0).getVisits()).hasSize(first.getPets().get(0).getVisits().size() - 1);
+	}
+
+	@Test
+	void detailsAreSharedReadViewOfCachedCopy() {
+		OwnerDetails first = this.cache.details(9);
+		this.statistics.clear();
+
+		// the read view is built once when the owner is cached, hits neither copy nor query
+		assertThat(this.cache.details(9)).isSameAs(first);
+		assertThat(first.getPets()).extracting(OwnerDetails.PetDetails::getName).containsExactly("Freddy");
+		assertThat(this.statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void missReturnsLoadedOwnerAndCachesCopy() {
+		this.cache.invalidated(new CacheInvalidation(OwnerRepository.OWNERS_CACHE, 8));
+		Owner loaded = this.cache.get(8);
+		loaded.setLastName("Changed");
+
+		assertThat(this.cache.get(8).getLastName()).isEqualTo("Escobito");
+		assertThat(this.cache.details(8).getLastName()).isEqualTo("Escobito");
+	}
+
+	@Test
+	void ownerInvalidatedWhileLoadingIsNotCached() {
+		// the owner changes on another instance while this one reads it, so the read may
+		// be stale; the read runs outside of Caffeine, the invalidation does not block on it
+		OwnerRepository owners = mock(OwnerRepository.class, AdditionalAnswers.delegatesTo(this.owners));
+		OwnerCache cache = new OwnerCache(this.context.getBean(CacheManager.class), owners,
+				this.context.getBean(PlatformTransactionManager.class),
+				this.context.getBeanProvider(CacheInvalidationBus.class));
+		doAnswer(invocation -> {
+			cache.invalidated(new CacheInvalidation(OwnerRepository.OWNERS_CACHE, 5));
+			return this.owners.findById(5);
+		}).doAnswer(invocation -> this.owners.findById(5)).when(owners).findById(5);
+
+		assertThat(cache.get(5).getLastName()).isEqualTo("McTavish");
+		assertThat(cache.get(5).getLastName()).isEqualTo("McTavish");
+		assertThat(cache.get(5).getLastName()).isEqualTo("McTavish");
+		verify(owners, times(2)).findById(5);
+	}
+
+	@Test
+	void missingOwnerIsNotCached() {
+		assertThat(this.cache.get(4711)).isNull();
+		assertThat(this.cache.get(4711)).isNull();
+	}
+
+}
@@ -16,10 +16,13 @@
 
 package org.springframework.samples.petclinic.owner;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -43,18 +46,26 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Test class for {@link OwnerController}
  *
  * @author Colin But
  */
-@WebMvcTest(OwnerController.class)
+@WebMvcTest(value = OwnerController.class,
+		includeFilters = @ComponentScan.Filter(value = OwnerLoader.class, type = FilterType.ASSIGNABLE_TYPE))
 @DisabledInNativeImage
 @DisabledInAotMode
 class OwnerControllerTests {
@@ -67,6 +78,10 @@ class OwnerControllerTests {
 	@MockBean
 	private OwnerRepository owners;
 
+	// the OwnerLoader reads in transactions of its own
+	@MockBean
+	private PlatformTransactionManager transactionManager;
+
 	private Owner george() {
 		Owner george = new Owner();
 		george.setId(TEST_OWNER_ID);
@@ -86,12 +101,17 @@ class OwnerControllerTests {
 		return george;
 	};
 
+	private OwnerListRow row(Owner owner) {
+		return new OwnerListRow(owner.getId(), owner.getFirstName(), owner.getLastName(), owner.getAddress(),
+				owner.getCity(), owner.getTelephone());
+	}
+
 	@BeforeEach
 	void setup() {
 
 		Owner george = george();
-		given(this.owners.findByLastName(eq("Franklin"), any(Pageable.class)))
-			.willReturn(new PageImpl<Owner>(Lists.newArrayList(george)));
+		given(this.owners.findListRowsByLastName(eq("Franklin"), any(Pageable.class)))
+			.willReturn(new PageImpl<OwnerListRow>(Lists.newArrayList(row(george))));
 
 		given(this.owners.findAll(any(Pageable.class))).willReturn(new PageImpl<Owner>(Lists.newArrayList(george)));
 
@@ -142,15 +162,20 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormSuccess() throws Exception {
-		Page<Owner> tasks = new PageImpl<Owner>(Lists.newArrayList(george(), new Owner()));
-		Mockito.when(this.owners.findByLastName(anyString(), any(Pageable.class))).thenReturn(tasks);
-		mockMvc.perform(get("/owners?page=1")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"));
+		Page<OwnerListRow> tasks = new PageImpl<OwnerListRow>(Lists.newArrayList(row(george()), row(new Owner())));
+		Mockito.when(this.owners.findListRowsByLastName(anyString(), any(Pageable.class))).thenReturn(tasks);
+		Mockito.when(this.owners.findPetNamesByOwnerIds(any()))
+			.thenReturn(Lists.<Object[]>newArrayList(new Object[] { TEST_OWNER_ID, "Max" }));
+		mockMvc.perform(get("/owners?page=1"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("listOwners", hasItem(hasProperty("pets", contains("Max")))))
+			.andExpect(view().name("owners/ownersList"));
 	}
 
 	@Test
 	void testProcessFindFormByLastName() throws Exception {
-		Page<Owner> tasks = new PageImpl<Owner>(Lists.newArrayList(george()));
-		Mockito.when(this.owners.findByLastName(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerListRow> tasks = new PageImpl<OwnerListRow>(Lists.newArrayList(row(george())));
+		Mockito.when(this.owners.findListRowsByLastName(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Franklin"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/" + TEST_OWNER_ID));
@@ -158,8 +183,8 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormNoOwnersFound() throws Exception {
-		Page<Owner> tasks = new PageImpl<Owner>(Lists.newArrayList());
-		Mockito.when(this.owners.findByLastName(eq("Unknown Surname"), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerListRow> tasks = new PageImpl<OwnerListRow>(Lists.newArrayList());
+		Mockito.when(this.owners.findListRowsByLastName(eq("Unknown Surname"), any(Pageable.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Unknown Surname"))
 			.andExpect(status().isOk())
 			.andExpect(model().attributeHasFieldErrors("owner", "lastName"))
@@ -168,6 +193,23 @@ class OwnerControllerTests {
 
 	}
 
+	@Test
+	void testProcessFindFormByKeyset() throws Exception {
+		Window<Owner> window = Window.from(Lists.newArrayList(george(), new Owner()), ScrollPosition::offset, true);
+		given(this.owners.findByLastNameStartingWith(eq(""), any(ScrollPosition.class), any(Sort.class),
+				any(Limit.class)))
+			.willReturn(window);
+		given(this.owners.countByLastNameUpTo("", 1001)).willReturn(1001L);
+		mockMvc.perform(get("/owners").param("cursor", ""))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("keyset", true))
+			.andExpect(model().attributeExists("nextCursor"))
+			.andExpect(model().attribute("previousCursor", nullValue()))
+			.andExpect(model().attribute("totalItems", 1000L))
+			.andExpect(model().attribute("totalCapped", true))
+			.andExpect(view().name("owners/ownersList"));
+	}
+
 	@Test
 	void testInitUpdateOwnerForm() throws Exception {
 		mockMvc.perform(get("/owners/{ownerId}/edit", TEST_OWNER_ID))
@@ -224,13 +266,13 @@ class OwnerControllerTests {
 			.andExpect(model().attribute("owner", hasProperty("city", is("Madison"))))
 			.andExpect(model().attribute("owner", hasProperty("telephone", is("6085551023"))))
 			.andExpect(model().attribute("owner", hasProperty("pets", not(empty()))))
-			.andExpect(model().attribute("owner", hasProperty("pets", new BaseMatcher<List<Pet>>() {
+			.andExpect(model().attribute("owner", hasProperty("pets", new BaseMatcher<List<OwnerDetails.PetDetails>>() {
 
 				@Override
 				public boolean matches(Object item) {
 					@SuppressWarnings("unchecked")
-					List<Pet> pets = (List<Pet>) item;
-					Pet pet = pets.get(0);
+					List<OwnerDetails.PetDetails> pets = (List<OwnerDetails.PetDetails>) item;
+					OwnerDetails.PetDetails pet = pets.get(0);
 					if (pet.getVisits().isEmpty()) {
 						return false;
 					}
@@ -243,6 +285,8 @@ class OwnerControllerTests {
 				}
 			})))
 			.andExpect(view().name("owners/ownerDetails"));
+		// findOwner and showOwner share the owner loaded for this request
+		Mockito.verify(this.owners, Mockito.times(1)).findById(TEST_OWNER_ID);
 	}
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests for {@link OwnerDataGenerator}. The generator commits its own transactions, so the
+ * tests run without a surrounding transaction.
+ */
+@DataJpaTest(includeFilters = @ComponentScan.Filter(value = OwnerDataGenerator.class,
+		type = FilterType.ASSIGNABLE_TYPE))
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OwnerDataGeneratorTests {
+
+	@Autowired
+	private OwnerDataGenerator generator;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private VisitRepository visits;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void shouldGenerateRequestedVolumeInBatches() {
+		int ownersBefore = count("owners");
+		int petsBefore = count("pets");
+		int visitsBefore = count("visits");
+
+		OwnerDataGenerator.Result result = this.generator
+			.generate(new OwnerDataGenerator.Volume(25, 2, 3, 1, 1.0, 10));
+
+		assertThat(result.owners()).isEqualTo(25);
+		assertThat(result.pets()).isEqualTo(50);
+		assertThat(result.visits()).isEqualTo(150);
+		assertThat(result.getRows()).isEqualTo(225);
+		assertThat(count("owners")).isEqualTo(ownersBefore + 25);
+		assertThat(count("pets")).isEqualTo(petsBefore + 50);
+		assertThat(count("visits")).isEqualTo(visitsBefore + 150);
+	}
+
+	@Test
+	void shouldGenerateSameDataForSameSeed() {
+		OwnerDataGenerator.Volume volume = OwnerDataGenerator.Volume.of(20, 2, 1).withSeed(7);
+		int first = this.generator.generate(volume).firstOwnerId();
+		int second = this.generator.generate(volume).firstOwnerId();
+		int third = this.generator.generate(volume.withSeed(8)).firstOwnerId();
+
+		assertThat(second).isGreaterThan(first + 19);
+		assertThat(generatedOwners(first)).hasSize(40);
+		assertThat(generatedOwners(second)).isEqualTo(generatedOwners(first));
+		assertThat(generatedOwners(third)).isNotEqualTo(generatedOwners(first));
+	}
+
+	@Test
+	void shouldSkewLastNames() {
+		int start = this.generator.generate(OwnerDataGenerator.Volume.of(2000, 0, 0)).firstOwnerId();
+
+		List<Integer> counts = this.jdbcTemplate.queryForList(
+				"SELECT COUNT(*) FROM owners WHERE id >= ? GROUP BY last_name ORDER BY COUNT(*) DESC", Integer.class,
+				start);
+		// uniform over all names would give about 4 owners per name
+		assertThat(counts.get(0)).isGreaterThan(150);
+		assertThat(counts.get(counts.size() - 1)).isLessThan(5);
+	}
+
+	@Test
+	void shouldLetHibernateAssignIdsAfterGeneratedRows() {
+		this.generator.generate(OwnerDataGenerator.Volume.of(10, 1, 1));
+		int maxId = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM owners", Integer.class);
+
+		Owner owner = new Owner();
+		owner.setFirstName("Sam");
+		owner.setLastName("Schultz");
+		owner.setAddress("4, Evans Street");
+		owner.setCity("Wollongong");
+		owner.setTelephone("4444444444");
+		this.owners.save(owner);
+
+		assertThat(owner.getId()).isGreaterThan(maxId);
+	}
+
+	@Test
+	void shouldBookVisitsAfterGeneratedVisits() {
+		int ownerId = this.generator.generate(OwnerDataGenerator.Volume.of(100, 1, 1)).firstOwnerId();
+		int petId = this.jdbcTemplate.queryForObject("SELECT id FROM pets WHERE owner_id = ?", Integer.class, ownerId);
+		int maxVisitId = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM visits", Integer.class);
+
+		Visit visit = new Visit();
+		visit.setDescription("booked");
+		assertThat(this.visits.book(ownerId, petId, visit)).isTrue();
+
+		assertThat(visit.getId()).isGreaterThan(maxVisitId);
+	}
+
+	@Test
+	void shouldReserveIdsFromSequenceAndOnlyMoveItForward() {
+		// another instance has already drawn blocks far ahead of the rows in the table
+		long drawn = this.jdbcTemplate.queryForObject("SELECT MAX(NEXT VALUE FOR owners_seq) FROM SYSTEM_RANGE(1, 20)",
+				Long.class);
+
+		int firstOwnerId = this.generator.generate(OwnerDataGenerator.Volume.of(120, 0, 0)).firstOwnerId();
+
+		assertThat(firstOwnerId).isGreaterThan((int) drawn);
+		long sequence = this.jdbcTemplate.queryForObject(
+				"SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'OWNERS_SEQ'", Long.class);
+		// the reserved blocks end at the last value drawn, Hibernate's next block starts behind them
+		assertThat(sequence).isGreaterThan(firstOwnerId + 119L);
+	}
+
+	private int count(String table) {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+	private List<String> generatedOwners(int firstId) {
+		return this.jdbcTemplate.queryForList(
+				"SELECT CONCAT(o.first_name, ' ', o.last_name, ' ', o.telephone, ' ', p.name, ' ', p.birth_date) "
+						+ "FROM owners o JOIN pets p ON p.owner_id = o.id WHERE o.id BETWEEN ? AND ? ORDER BY o.id, p.id",
+				String.class, firstId, firstId + 19);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Test class for {@link OwnerExportController}
+ */
+@WebMvcTest(OwnerExportController.class)
+@DisabledInNativeImage
+@DisabledInAotMode
+class OwnerExportControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private OwnerExporter exporter;
+
+	@Test
+	void testExportStreamsNdjsonAsAttachment() throws Exception {
+		willAnswer(invocation -> {
+			invocation.getArgument(1, OutputStream.class).write("{}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).given(this.exporter).export(eq(OwnerExportFormat.NDJSON), any(OutputStream.class));
+
+		MvcResult result = mockMvc.perform(get("/owners/export").accept("application/x-ndjson"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType("application/x-ndjson"))
+			.andExpect(header().string("Content-Disposition", "attachment; filename=\"owners.ndjson\""))
+			.andExpect(content().string("{}\n"));
+	}
+
+	@Test
+	void testExportSelectsCsvFromAcceptHeader() throws Exception {
+		MvcResult result = mockMvc.perform(get("/owners/export").accept("text/csv"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Content-Disposition", "attachment; filename=\"owners.csv\""));
+	}
+
+	@Test
+	void testExportRejectsUnsupportedFormat() throws Exception {
+		mockMvc.perform(get("/owners/export").accept(MediaType.APPLICATION_XML))
+			.andExpect(status().isNotAcceptable());
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for {@link OwnerExporter} against the sample data in all three formats.
+ */
+@DataJpaTest(properties = "petclinic.export.fetch-size=2",
+		includeFilters = @ComponentScan.Filter(value = OwnerExporter.class, type = FilterType.ASSIGNABLE_TYPE))
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OwnerExporterTests {
+
+	@Autowired
+	private OwnerExporter exporter;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void shouldExportOwnersAsJsonArray() throws IOException {
+		JsonNode owners = this.objectMapper.readTree(export(OwnerExportFormat.JSON));
+
+		assertThat(owners.isArray()).isTrue();
+		assertThat(owners).hasSize(10);
+		JsonNode franklin = owners.get(0);
+		assertThat(franklin.get("lastName").asText()).isEqualTo("Franklin");
+		assertThat(franklin.get("pets").get(0).get("name").asText()).isEqualTo("Leo");
+		assertThat(franklin.get("pets").get(0).get("birthDate").asText()).isEqualTo("2010-09-07");
+		assertThat(franklin.get("pets").get(0).get("type").asText()).isEqualTo("cat");
+	}
+
+	@Test
+	void shouldExportOneOwnerPerNdjsonLineThatCanBeImportedAgain() throws IOException {
+		String ndjson = export(OwnerExportFormat.NDJSON);
+		assertThat(ndjson.split("\n")).hasSize(10);
+
+		List<OwnerImportRecord> records = readAll(OwnerImportReader.ndjson(new StringReader(ndjson), this.objectMapper));
+		assertThat(records).hasSize(10);
+		OwnerImportRecord jean = records.get(5);
+		assertThat(jean.lastName()).isEqualTo("Coleman");
+		assertThat(jean.pets()).extracting(OwnerImportRecord.PetRecord::name).containsExactly("Samantha", "Max");
+		assertThat(jean.pets().get(0).visits()).extracting(OwnerImportRecord.VisitRecord::description)
+			.containsExactly("rabies shot", "spayed");
+	}
+
+	@Test
+	void shouldExportOneCsvRowPerVisitThatCanBeImportedAgain() throws IOException {
+		String csv = export(OwnerExportFormat.CSV);
+		// header + 13 pets, two of them with two visits each
+		assertThat(csv.split("\n")).hasSize(16);
+		assertThat(csv).startsWith(
+				"firstName,lastName,address,city,telephone,petName,petBirthDate,petType,visitDate,visitDescription\n");
+
+		List<OwnerImportRecord> records = readAll(OwnerImportReader.csv(new StringReader(csv)));
+		assertThat(records).hasSize(10);
+		assertThat(records.get(5).pets().get(0).visits()).hasSize(2);
+		assertThat(records).extracting(owner -> owner.pets().size()).containsExactly(1, 1, 2, 1, 1, 2, 1, 1, 1, 2);
+	}
+
+	private String export(OwnerExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.exporter.export(format, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private static List<OwnerImportRecord> readAll(OwnerImportReader reader) throws IOException {
+		List<OwnerImportRecord> records = new ArrayList<>();
+		try (reader) {
+			for (OwnerImportRecord record = reader.next(); record != null; record = reader.next()) {
+				records.add(record);
+			}
+		}
+		return records;
+	}
+
+}
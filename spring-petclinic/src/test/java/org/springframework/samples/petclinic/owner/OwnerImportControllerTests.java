@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Test class for {@link OwnerImportController}
+ */
+@WebMvcTest(OwnerImportController.class)
+@DisabledInNativeImage
+@DisabledInAotMode
+class OwnerImportControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private OwnerImporter importer;
+
+	@Test
+	void testImportReturnsReport() throws Exception {
+		OwnerImportReport report = new OwnerImportReport();
+		report.rejected(3, "telephone: invalid");
+		given(this.importer.importOwners(any(OwnerImportReader.class))).willReturn(report);
+
+		mockMvc
+			.perform(post("/owners/import").contentType("text/csv")
+				.content("firstName,lastName,address,city,telephone\n"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.rejected").value(1))
+			.andExpect(jsonPath("$.rejections[0].line").value(3));
+	}
+
+	@Test
+	void testImportRejectsUnsupportedContentType() throws Exception {
+		mockMvc.perform(post("/owners/import").contentType(MediaType.APPLICATION_XML).content("<owners/>"))
+			.andExpect(status().isUnsupportedMediaType());
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Tests for {@link OwnerImporter} with CSV and NDJSON input. The importer commits its own
+ * chunk transactions, so the tests run without a surrounding transaction.
+ */
+@DataJpaTest(properties = "petclinic.import.chunk-size=2",
+		includeFilters = @ComponentScan.Filter(value = { OwnerImporter.class, PetTypeRegistry.class },
+				type = FilterType.ASSIGNABLE_TYPE))
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OwnerImporterTests {
+
+	private static final String CSV_HEADER = "firstName,lastName,address,city,telephone,petName,petBirthDate,petType,visitDate,visitDescription\n";
+
+	@Autowired
+	private OwnerImporter importer;
+
+	@SpyBean
+	private OwnerRepository owners;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+	@Test
+	void shouldImportCsvInChunksAndRejectInvalidOwners() throws IOException {
+		String csv = CSV_HEADER //
+				+ "Ada,Csvimport,1 Main St.,Madison,6085550001,Leo,2020-01-01,cat,2023-01-01,rabies shot\n"
+				+ "Ada,Csvimport,1 Main St.,Madison,6085550001,Leo,2020-01-01,cat,2023-06-01,\"checkup, teeth\"\n"
+				+ "Ada,Csvimport,1 Main St.,Madison,6085550001,Max,2021-02-02,dog,,\n"
+				+ "Bob,Csvimport,2 Main St.,Madison,6085550002,,,,,\n"
+				+ "Cy,Csvimport,3 Main St.,Madison,not-a-phone,,,,,\n"
+				+ "Di,Csvimport,4 Main St.,Madison,6085550004,Rex,2020-13-01,dog,,\n"
+				+ "Ed,Csvimport,5 Main St.,Madison,6085550005,,,,,\n";
+
+		OwnerImportReport report = this.importer.importOwners(OwnerImportReader.csv(new StringReader(csv)));
+
+		assertThat(report.getOwners()).isEqualTo(3);
+		assertThat(report.getPets()).isEqualTo(2);
+		assertThat(report.getVisits()).isEqualTo(2);
+		assertThat(report.getChunks()).isEqualTo(2);
+		assertThat(report.getRejected()).isEqualTo(2);
+		assertThat(report.getRejections()).extracting(OwnerImportReport.Rejection::line).containsExactly(6L, 7L);
+		assertThat(report.getRejections().get(0).reason()).startsWith("telephone");
+		assertThat(report.getRejections().get(1).reason()).startsWith("petBirthDate");
+
+		new TransactionTemplate(this.transactionManager).executeWithoutResult(status -> {
+			Owner ada = this.owners.findByLastName("Csvimport", PageRequest.of(0, 5))
+				.filter(owner -> "Ada".equals(owner.getFirstName()))
+				.stream()
+				.findFirst()
+				.orElseThrow();
+			assertThat(ada.getPet("Leo").getVisits()).extracting(Visit::getDescription)
+				.containsExactly("rabies shot", "checkup, teeth");
+			assertThat(ada.getPet("Max").getType().getName()).isEqualTo("dog");
+		});
+	}
+
+	@Test
+	void shouldImportNdjsonAndContinueAfterBadLines() throws IOException {
+		String ndjson = """
+				{"firstName":"Fay","lastName":"Jsonimport","address":"1 Main St.","city":"Madison","telephone":"6085550011","pets":[{"name":"Tom","birthDate":"2019-03-03","type":"cat","visits":[{"date":"2024-01-02","description":"vaccination"}]}]}
+				{"firstName":"Gus","lastName":"Jsonimport",
+
+				{"firstName":"Hal","lastName":"Jsonimport","address":"3 Main St.","city":"Madison","telephone":"6085550013","pets":[{"name":"Nemo","birthDate":"2019-03-03","type":"fish"}]}
+				{"firstName":"Ivy","lastName":"Jsonimport","address":"4 Main St.","city":"Madison","telephone":"6085550014","pets":[{"name":"Tom","birthDate":"2019-03-03","type":"cat","visits":[{"description":""}]}]}
+				{"firstName":"Jo","lastName":"Jsonimport","address":"5 Main St.","city":"Madison","telephone":"6085550015"}
+				""";
+
+		OwnerImportReport report = this.importer
+			.importOwners(OwnerImportReader.ndjson(new StringReader(ndjson), this.objectMapper));
+
+		assertThat(report.getOwners()).isEqualTo(2);
+		assertThat(report.getPets()).isEqualTo(1);
+		assertThat(report.getVisits()).isEqualTo(1);
+		assertThat(report.getRejections()).extracting(OwnerImportReport.Rejection::line).containsExactly(2L, 4L, 5L);
+		assertThat(report.getRejections().get(1).reason()).isEqualTo("pets[0].type: unknown pet type 'fish'");
+		assertThat(report.getRejections().get(2).reason()).startsWith("pets[0].visits[0].description");
+		assertThat(this.owners.findByLastName("Jsonimport", PageRequest.of(0, 5)).getTotalElements()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldRejectCsvRowsJacksonCannotRead() throws IOException {
+		String csv = CSV_HEADER //
+				+ "Kim,Rowimport,1 Main St.,Madison,6085550021,Leo,2020-01-01,cat,2023-01-01,checkup\n"
+				+ "Kim,Rowimport,1 Main St.,Madison,6085550021,Leo,2020-01-01,cat,2023-06-01,checkup,surplus\n"
+				+ "Lou,Rowimport,2 Main St.,Madison,6085550022,,,,,\n"
+				+ "Mo,Rowimport,3 Main St.,Madison,6085550023,,,,,,surplus\n"
+				+ "Ned,Rowimport,4 Main St.,Madison,6085550024,,,,,\n";
+
+		OwnerImportReport report = this.importer.importOwners(OwnerImportReader.csv(new StringReader(csv)));
+
+		// a row with more columns than the header ends the owner before it and is rejected on its own
+		assertThat(report.getOwners()).isEqualTo(3);
+		assertThat(report.getVisits()).isEqualTo(1);
+		assertThat(report.getRejections()).extracting(OwnerImportReport.Rejection::line).containsExactly(3L, 5L);
+		assertThat(this.owners.findByLastName("Rowimport", PageRequest.of(0, 5)).getTotalElements()).isEqualTo(3);
+	}
+
+	@Test
+	void shouldRejectOnlyOwnersWhoseSaveFails() throws IOException {
+		doThrow(new IllegalStateException("cannot store Pat")).when(this.owners)
+			.save(argThat((Owner owner) -> "Pat".equals(owner.getFirstName())));
+		String csv = CSV_HEADER //
+				+ "Oz,Failimport,1 Main St.,Madison,6085550031,,,,,\n"
+				+ "Pat,Failimport,2 Main St.,Madison,6085550032,,,,,\n"
+				+ "Quin,Failimport,3 Main St.,Madison,6085550033,,,,,\n";
+
+		OwnerImportReport report = this.importer.importOwners(OwnerImportReader.csv(new StringReader(csv)));
+
+		// not a DataAccessException, the chunk is still retried owner by owner
+		assertThat(report.getOwners()).isEqualTo(2);
+		assertThat(report.getRejections()).extracting(OwnerImportReport.Rejection::line).containsExactly(3L);
+		assertThat(report.getRejections().get(0).reason()).isEqualTo("cannot store Pat");
+		assertThat(this.owners.findByLastName("Failimport", PageRequest.of(0, 5)).getTotalElements()).isEqualTo(2);
+	}
+
+}
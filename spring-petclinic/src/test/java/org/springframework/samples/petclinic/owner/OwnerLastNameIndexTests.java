@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.samples.petclinic.system.CacheInvalidation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Test class for {@link OwnerLastNameIndex} and the index-backed
+ * {@link OwnerRepository#findByLastName} search.
+ */
+@DataJpaTest(properties = "petclinic.owner-index.enabled=true",
+		includeFilters = @ComponentScan.Filter(value = OwnerLastNameIndex.class, type = FilterType.ASSIGNABLE_TYPE))
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OwnerLastNameIndexTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private OwnerLastNameIndex index;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void shouldAnswerPrefixLookupsAndCounts() {
+		OwnerLastNameIndex index = new OwnerLastNameIndex(null);
+		index.put(3, "Davis");
+		index.put(1, "davidson");
+		index.put(2, "Black");
+		index.put(4, "Davis");
+
+		assertThat(index.count("Dav")).isEqualTo(3);
+		assertThat(index.count("davis")).isEqualTo(2);
+		assertThat(index.count("")).isEqualTo(4);
+		assertThat(index.count("Z")).isZero();
+		assertThat(index.find("Dav", 0, 10)).containsExactly(1, 3, 4);
+		assertThat(index.find("Dav", 1, 1)).containsExactly(3);
+		assertThat(index.find("Dav", 5, 10)).isEmpty();
+
+		index.put(1, "Black");
+		index.remove(4);
+		assertThat(index.find("", 0, 10)).containsExactly(1, 2, 3);
+		assertThat(index.count("Dav")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldSearchOwnersThroughIndex() {
+		assertThat(this.index.isReady()).isTrue();
+		Page<Owner> davis = this.owners.findByLastName("davis", PageRequest.of(0, 5));
+		assertThat(davis.getTotalElements()).isEqualTo(2);
+		assertThat(davis).extracting(Owner::getFirstName).containsExactly("Betty", "Harold");
+
+		Page<OwnerListRow> rows = this.owners.findListRowsByLastName("Es", PageRequest.of(1, 1));
+		assertThat(rows.getTotalElements()).isEqualTo(2);
+		assertThat(rows).extracting(OwnerListRow::getLastName).containsExactly("Estaban");
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void shouldUpdateIndexWhenOwnerIsSaved() {
+		Owner owner = new Owner();
+		owner.setFirstName("Sam");
+		owner.setLastName("Zyzzyva");
+		owner.setAddress("4, Evans Street");
+		owner.setCity("Wollongong");
+		owner.setTelephone("4444444444");
+		this.owners.save(owner);
+
+		assertThat(this.index.find("Zyz", 0, 5)).containsExactly(owner.getId());
+		assertThat(this.owners.findByLastName("Zyz", PageRequest.of(0, 5))).extracting(Owner::getId)
+			.containsExactly(owner.getId());
+	}
+
+	@Test
+	void shouldReapplyChangesCommittedWhileBuilding() {
+		OwnerLastNameIndex[] holder = new OwnerLastNameIndex[1];
+		// Simulates owners saved on this instance while the table is being read: the
+		// query result still has the old rows
+		JdbcTemplate racing = new JdbcTemplate(this.jdbcTemplate.getDataSource()) {
+			@Override
+			public void query(String sql, RowCallbackHandler rch) {
+				super.query(sql, rch);
+				holder[0].put(1, "Zyzzyva");
+				holder[0].put(9000, "Latecomer");
+				holder[0].remove(2);
+			}
+		};
+		OwnerLastNameIndex index = new OwnerLastNameIndex(racing);
+		holder[0] = index;
+		index.build();
+
+		assertThat(index.find("Zyz", 0, 5)).containsExactly(1);
+		assertThat(index.count("Franklin")).isZero();
+		assertThat(index.find("Late", 0, 5)).containsExactly(9000);
+		assertThat(index.count("Davis")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldFollowInvalidationsFromOtherInstances() {
+		OwnerLastNameIndex index = new OwnerLastNameIndex(this.jdbcTemplate);
+		index.build();
+
+		// Changes written by another instance reach this one only as invalidations
+		this.jdbcTemplate.update("UPDATE owners SET last_name = 'Quux' WHERE id = 1");
+		index.invalidated(new CacheInvalidation(OwnerRepository.OWNERS_CACHE, 1));
+		assertThat(index.find("Quux", 0, 5)).containsExactly(1);
+		assertThat(index.count("Franklin")).isZero();
+
+		this.jdbcTemplate.update("INSERT INTO owners (id, first_name, last_name, address, city, telephone) "
+				+ "VALUES (9000, 'Sam', 'Zyzzyva', '4, Evans Street', 'Wollongong', '4444444444')");
+		index.invalidated(CacheInvalidation.region(OwnerRepository.OWNERS_CACHE));
+		assertThat(index.find("Zyz", 0, 5)).containsExactly(9000);
+
+		this.jdbcTemplate.update("DELETE FROM owners WHERE id = 9000");
+		index.invalidated(new CacheInvalidation(OwnerRepository.OWNERS_CACHE, 9000));
+		assertThat(index.count("Zyz")).isZero();
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the SQL statements of owner and pet pages, so that the owner aggregate is
+ * loaded only once per request through {@link OwnerLoader}. The {@link OwnerCache} is
+ * disabled, so that every request reads from the database.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"petclinic.cache.owners.enabled=false" })
+@AutoConfigureMockMvc
+class OwnerLoaderTests {
+
+	// increment of the <table>_seq sequences, see db/h2/schema.sql
+	private static final int ALLOCATION_SIZE = 50;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PetTypeRegistry petTypes;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		// the pet types are served from the registry and are not part of the counts
+		this.petTypes.findAll();
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void petEditFormLoadsOwnerOnce() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/edit", 6, 7)).andExpect(status().isOk());
+		// findOwner and findPet used to load the owner with its pets twice
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void visitFormLoadsOwnerOnce() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits/new", 6, 7)).andExpect(status().isOk());
+		// owner with pets and types, then the previous visits of the pet
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void visitBookingDoesNotLoadOrMergeVisits() throws Exception {
+		long sequence = sequenceValue("VISITS_SEQ");
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 6, 7).param("date", "2024-01-02")
+				.param("description", "booked"))
+			.andExpect(status().is3xxRedirection());
+		// owner with pets and types, then the insert of the new visit; the pooled generator reads
+		// visits_seq only when it needs a new block of ids, so such a read is counted separately
+		long sequenceReads = (sequenceValue("VISITS_SEQ") - sequence) / ALLOCATION_SIZE;
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2 + sequenceReads);
+	}
+
+	@Test
+	void petCreationDoesNotLoadOwnerAggregate() throws Exception {
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/pets/new", 10).param("name", "Nemo")
+				.param("type", "bird")
+				.param("birthDate", "2020-01-02"))
+			.andExpect(status().is3xxRedirection());
+		// owner row, the duplicate check and the insert; the pet id comes from the pooled sequence
+		assertThat(this.statistics.getPrepareStatementCount()).isBetween(3L, 4L);
+		assertThat(this.statistics.getEntityLoadCount()).isEqualTo(1);
+	}
+
+	@Test
+	void ownerDetailsLoadOwnerOnce() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 6)).andExpect(status().isOk());
+		// findOwner and showOwner used to load the owner with its pets twice
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	private long sequenceValue(String sequence) {
+		return this.jdbcTemplate.queryForObject(
+				"SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequence);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pet lookups of {@link Owner}, which have to follow {@link Owner#addPet(Pet)}, ids
+ * assigned on save, renamed pets and changes made directly to the list of pets.
+ */
+class OwnerTests {
+
+	@Test
+	void findsPetsByIdAndByNameIgnoringCase() {
+		Owner owner = new Owner();
+		Pet leo = pet(owner, "Leo", 1);
+		Pet max = pet(owner, "Max", 2);
+
+		assertThat(owner.getPet(1)).isSameAs(leo);
+		assertThat(owner.getPet(2)).isSameAs(max);
+		assertThat(owner.getPet(3)).isNull();
+		assertThat(owner.getPet((Integer) null)).isNull();
+		assertThat(owner.getPet("leo")).isSameAs(leo);
+		assertThat(owner.getPet("MAX", true)).isSameAs(max);
+		assertThat(owner.getPet("unknown")).isNull();
+	}
+
+	@Test
+	void followsAddPetAndIdsAssignedOnSave() {
+		Owner owner = new Owner();
+		pet(owner, "Leo", 1);
+		assertThat(owner.getPet("Rosy")).isNull();
+
+		Pet rosy = new Pet();
+		rosy.setName("Rosy");
+		owner.addPet(rosy);
+		assertThat(owner.getPet("rosy")).isSameAs(rosy);
+		// a new pet does not count as a duplicate of a saved one
+		assertThat(owner.getPet("rosy", true)).isNull();
+
+		rosy.setId(7);
+		assertThat(owner.getPet(7)).isSameAs(rosy);
+		assertThat(owner.getPet("rosy", true)).isSameAs(rosy);
+	}
+
+	@Test
+	void followsChangesMadeDirectlyToThePets() {
+		Owner owner = new Owner();
+		Pet leo = pet(owner, "Leo", 1);
+		assertThat(owner.getPet("leo")).isSameAs(leo);
+
+		Pet basil = new Pet();
+		basil.setName("Basil");
+		basil.setId(2);
+		owner.getPets().add(basil);
+		assertThat(owner.getPet(2)).isSameAs(basil);
+
+		leo.setName("Jewel");
+		assertThat(owner.getPet("leo")).isNull();
+		assertThat(owner.getPet("jewel")).isSameAs(leo);
+	}
+
+	@Test
+	void findsRenamedAndReplacedPetsWithoutSizeChange() {
+		Owner owner = new Owner();
+		Pet leo = pet(owner, "Leo", 1);
+		pet(owner, "Max", 2);
+		assertThat(owner.getPet("max")).isNotNull();
+
+		// renamed, and looked up by the new name first
+		leo.setName("Jewel");
+		assertThat(owner.getPet("jewel")).isSameAs(leo);
+		assertThat(owner.getPet("jewel", true)).isSameAs(leo);
+		assertThat(owner.getPet("leo")).isNull();
+
+		// replaced in place
+		Pet rosy = new Pet();
+		rosy.setName("Rosy");
+		rosy.setId(3);
+		owner.getPets().set(1, rosy);
+		assertThat(owner.getPet(2)).isNull();
+		assertThat(owner.getPet("max")).isNull();
+		assertThat(owner.getPet(3)).isSameAs(rosy);
+		assertThat(owner.getPet("rosy")).isSameAs(rosy);
+	}
+
+	private static Pet pet(Owner owner, String name, int id) {
+		Pet pet = new Pet();
+		pet.setName(name);
+		owner.addPet(pet);
+		pet.setId(id);
+		return pet;
+	}
+
+}
@@ -25,10 +25,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
@@ -41,7 +48,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author Colin But
  */
 @WebMvcTest(value = PetController.class,
-		includeFilters = @ComponentScan.Filter(value = PetTypeFormatter.class, type = FilterType.ASSIGNABLE_TYPE))
+		includeFilters = @ComponentScan.Filter(value = { PetTypeFormatter.class, PetTypeRegistry.class, OwnerLoader.class },
+				type = FilterType.ASSIGNABLE_TYPE))
 @DisabledInNativeImage
 @DisabledInAotMode
 class PetControllerTests {
@@ -56,6 +64,13 @@ class PetControllerTests {
 	@MockBean
 	private OwnerRepository owners;
 
+	// the OwnerLoader reads in transactions of its own
+	@MockBean
+	private PlatformTransactionManager transactionManager;
+
+	@MockBean
+	private PetRepository pets;
+
 	@BeforeEach
 	void setup() {
 		PetType cat = new PetType();
@@ -63,10 +78,14 @@ class PetControllerTests {
 		cat.setName("hamster");
 		given(this.owners.findPetTypes()).willReturn(Lists.newArrayList(cat));
 		Owner owner = new Owner();
+		owner.setId(TEST_OWNER_ID);
 		Pet pet = new Pet();
 		owner.addPet(pet);
 		pet.setId(TEST_PET_ID);
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(owner);
+		given(this.owners.findWithoutPetsById(TEST_OWNER_ID)).willReturn(owner);
+		given(this.pets.add(eq(TEST_OWNER_ID), any(Pet.class))).willReturn(true);
+		given(this.pets.update(eq(TEST_OWNER_ID), any(Pet.class))).willReturn(true);
 	}
 
 	@Test
@@ -85,6 +104,36 @@ class PetControllerTests {
 				.param("birthDate", "2015-02-12"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/{ownerId}"));
+		// the pet is inserted on its own, without loading the owner with its pets
+		verify(this.pets).add(eq(TEST_OWNER_ID), any(Pet.class));
+		verify(this.owners, never()).findById(TEST_OWNER_ID);
+	}
+
+	@Test
+	void testProcessCreationFormDuplicateName() throws Exception {
+		given(this.pets.existsByOwnerAndName(TEST_OWNER_ID, "Betty", null)).willReturn(true);
+		mockMvc
+			.perform(post("/owners/{ownerId}/pets/new", TEST_OWNER_ID).param("name", "Betty")
+				.param("type", "hamster")
+				.param("birthDate", "2015-02-12"))
+			.andExpect(model().attributeHasFieldErrorCode("pet", "name", "duplicate"))
+			.andExpect(status().isOk())
+			.andExpect(view().name("pets/createOrUpdatePetForm"));
+		verify(this.pets, never()).add(any(), any());
+	}
+
+	@Test
+	void testProcessCreationFormConcurrentDuplicateName() throws Exception {
+		// another request inserted the same name after the check
+		given(this.pets.add(eq(TEST_OWNER_ID), any(Pet.class)))
+			.willThrow(new DataIntegrityViolationException("pets_owner_name"));
+		mockMvc
+			.perform(post("/owners/{ownerId}/pets/new", TEST_OWNER_ID).param("name", "Betty")
+				.param("type", "hamster")
+				.param("birthDate", "2015-02-12"))
+			.andExpect(model().attributeHasFieldErrorCode("pet", "name", "duplicate"))
+			.andExpect(status().isOk())
+			.andExpect(view().name("pets/createOrUpdatePetForm"));
 	}
 
 	@Test
@@ -106,6 +155,8 @@ class PetControllerTests {
 			.andExpect(status().isOk())
 			.andExpect(model().attributeExists("pet"))
 			.andExpect(view().name("pets/createOrUpdatePetForm"));
+		// findOwner and findPet share the owner loaded for this request
+		verify(this.owners, times(1)).findById(TEST_OWNER_ID);
 	}
 
 	@Test
@@ -116,6 +167,20 @@ class PetControllerTests {
 				.param("birthDate", "2015-02-12"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/{ownerId}"));
+		verify(this.pets).update(eq(TEST_OWNER_ID), any(Pet.class));
+		verify(this.owners, never()).findById(TEST_OWNER_ID);
+	}
+
+	@Test
+	void testProcessUpdateFormKeepsOwnName() throws Exception {
+		// only another pet of the owner with the same name is a duplicate
+		given(this.pets.existsByOwnerAndName(TEST_OWNER_ID, "Betty", TEST_PET_ID)).willReturn(false);
+		given(this.pets.existsByOwnerAndName(TEST_OWNER_ID, "Betty", null)).willReturn(true);
+		mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/edit", TEST_OWNER_ID, TEST_PET_ID).param("name", "Betty")
+				.param("type", "hamster")
+				.param("birthDate", "2015-02-12"))
+			.andExpect(status().is3xxRedirection());
 	}
 
 	@Test
@@ -18,6 +18,8 @@ package org.springframework.samples.petclinic.owner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -49,7 +51,7 @@ class PetTypeFormatterTests {
 
 	@BeforeEach
 	void setup() {
-		this.petTypeFormatter = new PetTypeFormatter(pets);
+		this.petTypeFormatter = new PetTypeFormatter(new PetTypeRegistry(pets));
 	}
 
 	@Test
@@ -75,6 +77,21 @@ class PetTypeFormatterTests {
 		});
 	}
 
+	@Test
+	void shouldLoadPetTypesOnceUntilRefreshed() throws ParseException {
+		PetTypeRegistry registry = new PetTypeRegistry(this.pets);
+		given(this.pets.findPetTypes()).willReturn(makePetTypes());
+		PetTypeFormatter formatter = new PetTypeFormatter(registry);
+		formatter.parse("Bird", Locale.ENGLISH);
+		formatter.parse("Dog", Locale.ENGLISH);
+		assertThat(registry.findAll()).extracting(PetType::getName).containsExactly("Dog", "Bird");
+		verify(this.pets, times(1)).findPetTypes();
+
+		registry.refresh();
+		formatter.parse("Dog", Locale.ENGLISH);
+		verify(this.pets, times(2)).findPetTypes();
+	}
+
 	/**
 	 * Helper method to produce some sample pet types just for test purpose
 	 * @return {@link Collection} of {@link PetType}
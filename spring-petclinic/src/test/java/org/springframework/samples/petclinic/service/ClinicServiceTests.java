@@ -17,9 +17,11 @@
 package org.springframework.samples.petclinic.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,13 +29,24 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.model.Person;
+import org.springframework.samples.petclinic.model.PersonKeyset;
 import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerListRow;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
 import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetRepository;
 import org.springframework.samples.petclinic.owner.PetType;
 import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitRepository;
 import org.springframework.samples.petclinic.vet.Vet;
 import org.springframework.samples.petclinic.vet.VetRepository;
 import org.springframework.stereotype.Service;
@@ -79,6 +92,15 @@ class ClinicServiceTests {
 	@Autowired
 	protected VetRepository vets;
 
+	@Autowired
+	protected VisitRepository visits;
+
+	@Autowired
+	protected JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	protected PetRepository pets;
+
 	Pageable pageable;
 
 	@Test
@@ -90,6 +112,40 @@ class ClinicServiceTests {
 		assertThat(owners).isEmpty();
 	}
 
+	@Test
+	void shouldFindOwnerListRowsWithPetNames() {
+		Page<OwnerListRow> rows = this.owners.findListRowsByLastName("Davis", PageRequest.of(0, 5));
+		assertThat(rows.getTotalElements()).isEqualTo(2);
+		assertThat(rows).extracting(OwnerListRow::getFirstName).containsExactlyInAnyOrder("Betty", "Harold");
+
+		List<Object[]> petNames = this.owners.findPetNamesByOwnerIds(List.of(3, 6));
+		assertThat(petNames).extracting(pair -> pair[1]).containsExactly("Jewel", "Max", "Rosy", "Samantha");
+	}
+
+	@Test
+	void shouldScrollOwnersByKeyset() {
+		KeysetScrollPosition first = PersonKeyset.position(null);
+		Window<Owner> page1 = this.owners.findByLastNameStartingWith("", first, PersonKeyset.SORT, Limit.of(5));
+		assertThat(page1).extracting(Person::getLastName)
+			.containsExactly("Black", "Coleman", "Davis", "Davis", "Escobito");
+		assertThat(PersonKeyset.previousToken(page1, first)).isNull();
+
+		KeysetScrollPosition next = PersonKeyset.position(PersonKeyset.nextToken(page1, first));
+		Window<Owner> page2 = this.owners.findByLastNameStartingWith("", next, PersonKeyset.SORT, Limit.of(5));
+		assertThat(page2).extracting(Person::getLastName)
+			.containsExactly("Estaban", "Franklin", "McTavish", "Rodriquez", "Schroeder");
+		assertThat(PersonKeyset.nextToken(page2, next)).isNull();
+
+		KeysetScrollPosition previous = PersonKeyset.position(PersonKeyset.previousToken(page2, next));
+		Window<Owner> back = this.owners.findByLastNameStartingWith("", previous, PersonKeyset.SORT, Limit.of(5));
+		assertThat(back).extracting(Owner::getId).containsExactlyElementsOf(page1.map(Owner::getId));
+		assertThat(PersonKeyset.previousToken(back, previous)).isNull();
+		assertThat(PersonKeyset.nextToken(back, previous)).isNotNull();
+
+		assertThat(this.owners.countByLastNameUpTo("", 1000)).isEqualTo(10);
+		assertThat(this.owners.countByLastNameUpTo("", 3)).isEqualTo(3);
+	}
+
 	@Test
 	void shouldFindSingleOwnerWithPet() {
 		Owner owner = this.owners.findById(1);
@@ -182,6 +238,43 @@ class ClinicServiceTests {
 		assertThat(pet7.getName()).isEqualTo(newName);
 	}
 
+	@Test
+	@Transactional
+	void shouldAddAndUpdatePetWithoutSavingOwner() {
+		Pet pet = new Pet();
+		pet.setName("bowser");
+		pet.setType(EntityUtils.getById(this.owners.findPetTypes(), PetType.class, 2));
+		pet.setBirthDate(LocalDate.now());
+
+		assertThat(this.pets.add(6, pet)).isTrue();
+		assertThat(pet.getId()).isNotNull();
+		assertThat(this.pets.existsByOwnerAndName(6, "Bowser", null)).isTrue();
+		assertThat(this.pets.existsByOwnerAndName(6, "Bowser", pet.getId())).isFalse();
+
+		pet.setName("bowser jr");
+		pet.setType(null);
+		assertThat(this.pets.update(6, pet)).isTrue();
+		// the pet belongs to owner 6
+		assertThat(this.pets.update(1, pet)).isFalse();
+
+		Pet saved = this.owners.findById(6).getPet("bowser jr");
+		assertThat(saved.getId()).isEqualTo(pet.getId());
+		assertThat(saved.getType().getId()).isEqualTo(2);
+	}
+
+	@Test
+	@Transactional
+	void shouldRejectDuplicatePetNameOfOwner() {
+		Pet pet = new Pet();
+		pet.setName("MAX");
+		pet.setType(EntityUtils.getById(this.owners.findPetTypes(), PetType.class, 1));
+		pet.setBirthDate(LocalDate.now());
+
+		// owner 6 already has a pet named Max
+		assertThat(this.pets.existsByOwnerAndName(6, "MAX", null)).isTrue();
+		assertThatExceptionOfType(DataIntegrityViolationException.class).isThrownBy(() -> this.pets.add(6, pet));
+	}
+
 	@Test
 	void shouldFindVets() {
 		Collection<Vet> vets = this.vets.findAll();
@@ -212,6 +305,64 @@ class ClinicServiceTests {
 			.allMatch(value -> value.getId() != null);
 	}
 
+	@Test
+	@Transactional
+	void shouldBookVisitWithoutSavingOwner() {
+		Visit visit = new Visit();
+		visit.setDescription("booked");
+
+		assertThat(this.visits.book(6, 7, visit)).isTrue();
+		assertThat(visit.getId()).isNotNull();
+
+		Owner owner6 = this.owners.findById(6);
+		assertThat(owner6.getPet(7).getVisits()).extracting(Visit::getDescription).contains("booked");
+	}
+
+	@Test
+	@Transactional
+	void shouldBookVisitWithIdFromVisitSequence() {
+		Owner owner6 = this.owners.findById(6);
+		Visit visit = new Visit();
+		visit.setDescription("saved");
+		owner6.addVisit(7, visit);
+		this.owners.save(owner6);
+		Integer savedId = owner6.getPet(7)
+			.getVisits()
+			.stream()
+			.filter(saved -> "saved".equals(saved.getDescription()))
+			.findFirst()
+			.orElseThrow()
+			.getId();
+
+		Visit booked = new Visit();
+		booked.setDescription("booked");
+		assertThat(this.visits.book(6, 7, booked)).isTrue();
+
+		// both ids come from the same pooled generator on visits_seq, not from an identity column
+		assertThat(booked.getId()).isEqualTo(savedId + 1);
+	}
+
+	@Test
+	@Transactional
+	void shouldRejectVisitInsertedWithoutId() {
+		// the id columns have no identity default, so an insert that bypasses visits_seq fails
+		// instead of taking an id that the sequence hands out later
+		assertThatExceptionOfType(DataIntegrityViolationException.class).isThrownBy(() -> this.jdbcTemplate
+			.update("INSERT INTO visits (pet_id, visit_date, description) VALUES (7, CURRENT_DATE, 'no id')"));
+	}
+
+	@Test
+	@Transactional
+	void shouldNotBookVisitForPetOfAnotherOwner() {
+		Visit visit = new Visit();
+		visit.setDescription("booked");
+
+		// pet 7 belongs to owner 6
+		assertThat(this.visits.book(1, 7, visit)).isFalse();
+		assertThat(this.owners.findById(6).getPet(7).getVisits()).extracting(Visit::getDescription)
+			.doesNotContain("booked");
+	}
+
 	@Test
 	void shouldFindVisitsByPetId() throws Exception {
 		Owner owner6 = this.owners.findById(6);
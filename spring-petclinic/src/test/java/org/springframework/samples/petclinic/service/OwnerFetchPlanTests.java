@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifies the number of SQL statements issued by each owner fetch plan, so that a view
+ * only loads the associations it renders.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OwnerFetchPlanTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.entityManager.clear();
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void ownerDetailsLoadsVisitsOfAllPetsInOneExtraStatement() {
+		Owner owner = this.owners.findById(6);
+		int visits = 0;
+		for (Pet pet : owner.getPets()) {
+			pet.getType().getName();
+			visits += pet.getVisits().size();
+		}
+		assertThat(owner.getPets()).hasSize(2);
+		assertThat(visits).isEqualTo(4);
+		// owner with pets and types, then one subselect for the visits of all pets
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void petFormLoadsPetsWithoutVisits() {
+		Owner owner = this.owners.findById(6);
+		for (Pet pet : owner.getPets()) {
+			pet.getType().getName();
+		}
+		assertThat(owner.getPets()).hasSize(2);
+		assertThat(this.entityManager.getEntityManager()
+			.getEntityManagerFactory()
+			.getPersistenceUnitUtil()
+			.isLoaded(owner.getPets().get(0), "visits")).isFalse();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void visitFormLoadsVisitsInOneExtraStatement() {
+		Owner owner = this.owners.findById(6);
+		Pet pet = owner.getPet(7);
+		for (Visit visit : pet.getVisits()) {
+			visit.getDescription();
+		}
+		assertThat(pet.getVisits()).hasSize(2);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void searchListLoadsPetsOfThePageInOneBatch() {
+		Page<Owner> page = this.owners.findByLastName("", PageRequest.of(0, 5));
+		for (Owner owner : page) {
+			owner.getPets().size();
+		}
+		assertThat(page.getContent()).hasSize(5);
+		// page query, count query and one batch for the pets of all owners on the page
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerListRow;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compares the owner search queries on a large seeded dataset: the former
+ * {@code DISTINCT} + join query with its derived count, the join-free search and the list
+ * projection. Disabled by default; run with
+ * {@code ./mvnw test -Dtest=OwnerSearchBenchmarkTests -Dpetclinic.benchmark=true} and
+ * optionally {@code -Dpetclinic.benchmark.owners=1000000}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@EnabledIfSystemProperty(named = "petclinic.benchmark", matches = "true")
+class OwnerSearchBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(OwnerSearchBenchmarkTests.class);
+
+	private static final String LEGACY_QUERY = "SELECT DISTINCT owner FROM Owner owner left join owner.pets WHERE owner.lastName LIKE :lastName";
+
+	private static final String LEGACY_COUNT_QUERY = "SELECT count(DISTINCT owner) FROM Owner owner left join owner.pets WHERE owner.lastName LIKE :lastName";
+
+	private static final String[] LAST_NAMES = { "Black", "Coleman", "Davis", "Escobito", "Estaban", "Franklin",
+			"McTavish", "Rodriquez", "Schroeder", "Smith" };
+
+	private static final int ITERATIONS = 20;
+
+	// increment of the pooled id sequences (allocationSize in BaseEntity)
+	private static final int ALLOCATION_SIZE = 50;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void seed() {
+		int count = Integer.getInteger("petclinic.benchmark.owners", 1_000_000);
+		int firstOwnerId = reserveIds("owners", count);
+		int firstPetId = reserveIds("pets", count);
+		int batchSize = 10_000;
+		for (int start = 0; start < count; start += batchSize) {
+			int from = start;
+			int to = Math.min(start + batchSize, count);
+			List<Object[]> owners = new ArrayList<>(to - from);
+			List<Object[]> pets = new ArrayList<>(to - from);
+			for (int i = from; i < to; i++) {
+				owners.add(new Object[] { firstOwnerId + i, "First" + i, LAST_NAMES[i % LAST_NAMES.length] + i,
+						i + " Main St.", "Madison", "6085550000" });
+				pets.add(new Object[] { firstPetId + i, "Pet" + i, 1, firstOwnerId + i });
+			}
+			this.jdbcTemplate.batchUpdate(
+					"INSERT INTO owners (id, first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?, ?)",
+					owners);
+			this.jdbcTemplate.batchUpdate(
+					"INSERT INTO pets (id, name, birth_date, type_id, owner_id) VALUES (?, ?, NULL, ?, ?)", pets);
+		}
+	}
+
+	/**
+	 * Reserves {@code count} ids from the pooled sequence of the given table (H2) by
+	 * drawing enough values that Hibernate's next block starts behind them, so the seeded
+	 * rows never collide with ids of entities saved later.
+	 */
+	private int reserveIds(String table, int count) {
+		List<Long> values = this.jdbcTemplate.queryForList(
+				"SELECT NEXT VALUE FOR " + table + "_seq FROM SYSTEM_RANGE(1, ?)", Long.class,
+				count / ALLOCATION_SIZE + 2);
+		int maxId = this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Integer.class);
+		int firstId = (int) Math.max(maxId, values.get(0)) + 1;
+		assertThat((long) firstId + count - 1).isLessThanOrEqualTo(values.get(values.size() - 1));
+		return firstId;
+	}
+
+	@Test
+	void compareOwnerSearchQueries() {
+		for (int page : new int[] { 0, 1000 }) {
+			Pageable pageable = PageRequest.of(page, 5);
+			long legacy = measure("legacy DISTINCT + join, page " + page, () -> {
+				List<?> content = this.entityManager.createQuery(LEGACY_QUERY, Owner.class)
+					.setParameter("lastName", "Davis%")
+					.setFirstResult((int) pageable.getOffset())
+					.setMaxResults(pageable.getPageSize())
+					.getResultList();
+				long total = this.entityManager.createQuery(LEGACY_COUNT_QUERY, Long.class)
+					.setParameter("lastName", "Davis%")
+					.getSingleResult();
+				return content.size() + total;
+			});
+			long rewritten = measure("join-free search + count, page " + page,
+					() -> this.owners.findByLastName("Davis", pageable).getTotalElements());
+			long projection = measure("list projection + pet names, page " + page, () -> {
+				List<OwnerListRow> rows = this.owners.findListRowsByLastName("Davis", pageable).getContent();
+				return this.owners.findPetNamesByOwnerIds(rows.stream().map(OwnerListRow::getId).toList()).size();
+			});
+			assertThat(rewritten).isPositive();
+			assertThat(projection).isPositive();
+			assertThat(legacy).isPositive();
+		}
+	}
+
+	private long measure(String name, Supplier<Number> query) {
+		for (int i = 0; i < 3; i++) {
+			query.get();
+			this.entityManager.clear();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			query.get();
+			this.entityManager.clear();
+		}
+		long micros = (System.nanoTime() - start) / ITERATIONS / 1000;
+		logger.info(String.format("%-45s %10d us/op", name, micros));
+		return Math.max(micros, 1);
+	}
+
+}
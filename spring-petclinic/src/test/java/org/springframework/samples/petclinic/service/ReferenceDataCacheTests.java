@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.vet.Vet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifies that pet types, specialties and vets are served from the Hibernate
+ * second-level and query caches once they have been read.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.NONE,
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureObservability(tracing = false)
+class ReferenceDataCacheTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void vetWithSpecialtiesComesFromSecondLevelCache() {
+		loadVet(3);
+		this.statistics.clear();
+
+		Vet vet = loadVet(3);
+
+		assertThat(vet.getSpecialties()).extracting(specialty -> specialty.getName())
+			.containsExactly("dentistry", "surgery");
+		assertThat(this.statistics.getPrepareStatementCount()).isZero();
+		assertThat(this.statistics.getDomainDataRegionStatistics(Vet.CACHE_REGION).getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void petTypeQueryComesFromQueryCache() {
+		this.owners.findPetTypes();
+		this.statistics.clear();
+
+		assertThat(this.owners.findPetTypes()).extracting(PetType::getName).contains("cat", "dog");
+		assertThat(this.statistics.getPrepareStatementCount()).isZero();
+		assertThat(this.statistics.getQueryCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void regionStatisticsArePublished() {
+		loadVet(1);
+		loadVet(1);
+
+		assertThat(this.registry.get("cache.gets")
+			.tags("cache", Vet.CACHE_REGION, "cacheManager", "hibernate", "result", "hit")
+			.functionCounter()
+			.count()).isPositive();
+	}
+
+	// every load runs in its own persistence context, so only the second-level cache can
+	// avoid the database
+	private Vet loadVet(int id) {
+		EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+		try {
+			Vet vet = entityManager.find(Vet.class, id);
+			vet.getSpecialties();
+			return vet;
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+
+}
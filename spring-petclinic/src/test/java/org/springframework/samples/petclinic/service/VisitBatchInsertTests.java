@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that new owners, pets and visits are written as JDBC batches, and measures the
+ * visit insert throughput. The throughput run is disabled by default; run it with
+ * {@code ./mvnw test -Dtest=VisitBatchInsertTests -Dpetclinic.benchmark=true} and
+ * optionally {@code -Dpetclinic.benchmark.visits=1000000}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class VisitBatchInsertTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(VisitBatchInsertTests.class);
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void shouldInsertVisitsInBatches() {
+		Owner owner = newOwner(1, 100);
+		Pet pet = owner.getPets().get(0);
+		this.entityManager.persist(owner);
+		this.entityManager.flush();
+		assertThat(pet.getVisits()).allMatch(visit -> visit.getId() != null);
+		assertThat(this.statistics.getEntityInsertCount()).isEqualTo(102);
+		// four sequence calls (50 visit ids each) and one insert statement per table, the
+		// foreign keys are part of the inserts instead of separate updates
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(7);
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "petclinic.benchmark", matches = "true")
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void measureVisitInsertThroughput() {
+		int total = Integer.getInteger("petclinic.benchmark.visits", 1_000_000);
+		// like a nightly import: one owner with 10 pets and 1000 visits per transaction
+		int petsPerOwner = 10;
+		int visitsPerPet = 100;
+		int chunks = Math.max(1, total / (petsPerOwner * visitsPerPet));
+		TransactionTemplate transactions = new TransactionTemplate(this.transactionManager);
+		long start = System.nanoTime();
+		for (int i = 0; i < chunks; i++) {
+			transactions.executeWithoutResult(status -> this.entityManager.persist(newOwner(petsPerOwner, visitsPerPet)));
+		}
+		long nanos = System.nanoTime() - start;
+		long visits = (long) chunks * petsPerOwner * visitsPerPet;
+		logger.info(String.format("%d visits in %d ms: %.0f rows/sec", visits, nanos / 1_000_000,
+				visits * 1_000_000_000d / nanos));
+		assertThat(this.statistics.getEntityInsertCount()).isGreaterThanOrEqualTo(visits);
+	}
+
+	private Owner newOwner(int pets, int visits) {
+		Owner owner = new Owner();
+		owner.setFirstName("Batch");
+		owner.setLastName("Import");
+		owner.setAddress("1 Main St.");
+		owner.setCity("Madison");
+		owner.setTelephone("6085550000");
+		for (int i = 0; i < pets; i++) {
+			owner.addPet(newPet("Batch" + i, visits));
+		}
+		return owner;
+	}
+
+	private Pet newPet(String name, int visits) {
+		Pet pet = new Pet();
+		pet.setName(name);
+		pet.setBirthDate(LocalDate.of(2020, 1, 1));
+		pet.setType(this.entityManager.getReference(PetType.class, 1));
+		for (int i = 0; i < visits; i++) {
+			Visit visit = new Visit();
+			visit.setDescription("visit " + i);
+			pet.addVisit(visit);
+		}
+		return pet;
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.PetTypeRegistry;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs cache invalidations through the loopback bus, as if they had been received from
+ * another instance, and checks that the Spring caches and Hibernate regions are cleared.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, webEnvironment = WebEnvironment.NONE,
+		properties = "petclinic.cache.invalidation.bus=loopback")
+class CacheInvalidationTests {
+
+	@Autowired
+	private CacheInvalidationBus bus;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private VetRepository vets;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PetTypeRegistry petTypes;
+
+	@Test
+	void evictsSingleEntryOfSpringCache() {
+		this.cacheManager.getCache(OwnerRepository.OWNERS_CACHE).put(1, "one");
+		this.cacheManager.getCache(OwnerRepository.OWNERS_CACHE).put(2, "two");
+
+		this.bus.publish(new CacheInvalidation(OwnerRepository.OWNERS_CACHE, 1));
+
+		assertThat(this.cacheManager.getCache(OwnerRepository.OWNERS_CACHE).get(1)).isNull();
+		assertThat(this.cacheManager.getCache(OwnerRepository.OWNERS_CACHE).get(2)).isNotNull();
+	}
+
+	@Test
+	void clearsSpringCacheAndHibernateRegionOfTheSameName() {
+		this.vets.findAll();
+		load(Vet.class, 1);
+		assertThat(this.cacheManager.getCache(VetRepository.VETS_CACHE).get(SimpleKey.EMPTY)).isNotNull();
+		assertThat(hibernateCache().containsEntity(Vet.class, 1)).isTrue();
+
+		this.bus.publish(CacheInvalidation.region(VetRepository.VETS_CACHE));
+
+		assertThat(this.cacheManager.getCache(VetRepository.VETS_CACHE).get(SimpleKey.EMPTY)).isNull();
+		assertThat(hibernateCache().containsEntity(Vet.class, 1)).isFalse();
+	}
+
+	@Test
+	void clearsPetTypeRegionAndRegistry() {
+		PetType cat = this.petTypes.findById(1);
+		load(PetType.class, 1);
+		assertThat(hibernateCache().containsEntity(PetType.class, 1)).isTrue();
+
+		this.bus.publish(CacheInvalidation.region(PetType.CACHE_REGION));
+
+		assertThat(hibernateCache().containsEntity(PetType.class, 1)).isFalse();
+		// the registry has been reloaded
+		assertThat(this.petTypes.findById(1)).isNotSameAs(cat);
+	}
+
+	@Test
+	void clearsAllCachesWhenInvalidationsMayHaveBeenLost() {
+		this.vets.findAll();
+		load(Vet.class, 1);
+		PetType cat = this.petTypes.findById(1);
+		load(PetType.class, 1);
+
+		this.bus.publish(CacheInvalidation.all());
+
+		assertThat(this.cacheManager.getCache(VetRepository.VETS_CACHE).get(SimpleKey.EMPTY)).isNull();
+		assertThat(hibernateCache().containsEntity(Vet.class, 1)).isFalse();
+		assertThat(hibernateCache().containsEntity(PetType.class, 1)).isFalse();
+		assertThat(this.petTypes.findById(1)).isNotSameAs(cat);
+	}
+
+	private void load(Class<?> type, int id) {
+		EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+		try {
+			entityManager.find(type, id);
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+
+	private org.hibernate.Cache hibernateCache() {
+		return this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+	}
+
+}
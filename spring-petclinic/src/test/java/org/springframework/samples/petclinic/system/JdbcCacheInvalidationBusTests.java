@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link JdbcCacheInvalidationBus} with two instances sharing one database.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcCacheInvalidationBusTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Object> receivedByFirst = new ArrayList<>();
+
+	private final List<Object> receivedBySecond = new ArrayList<>();
+
+	private JdbcCacheInvalidationBus first;
+
+	private JdbcCacheInvalidationBus second;
+
+	@BeforeEach
+	void setup() {
+		this.jdbcTemplate.update("DELETE FROM cache_invalidations");
+		this.first = bus(this.jdbcTemplate, this.receivedByFirst);
+		this.second = bus(this.jdbcTemplate, this.receivedBySecond);
+		// the first poll only remembers where to start
+		this.first.poll();
+		this.second.poll();
+	}
+
+	@Test
+	void deliversInvalidationsToOtherInstancesOnly() {
+		this.first.publish(new CacheInvalidation("owners", 6));
+		this.first.publish(CacheInvalidation.region("vets"));
+
+		this.first.poll();
+		this.second.poll();
+		this.second.poll();
+
+		assertThat(this.receivedByFirst).isEmpty();
+		assertThat(this.receivedBySecond).containsExactly(new CacheInvalidation("owners", 6),
+				CacheInvalidation.region("vets"));
+	}
+
+	@Test
+	void deliversRowsThatBecomeVisibleLate() {
+		long start = nextFreeId();
+		// a row with a higher id committed before the row of a slower transaction
+		insert(start + 2, "owners", 1);
+		insert(start, "owners", 0);
+		this.second.poll();
+		insert(start + 1, "owners", 2);
+		this.second.poll();
+
+		assertThat(this.receivedBySecond).containsExactly(new CacheInvalidation("owners", 0),
+				new CacheInvalidation("owners", 1), new CacheInvalidation("owners", 2));
+	}
+
+	@Test
+	void invalidatesAllCachesAfterLargeGap() {
+		// the rows in between are not tracked one by one, some of them may still become visible
+		insert(nextFreeId() + 500, "owners", 3);
+		this.second.poll();
+
+		assertThat(this.receivedBySecond).containsExactly(CacheInvalidation.all(), new CacheInvalidation("owners", 3));
+	}
+
+	@Test
+	void countsFailedPublishInsteadOfThrowing() {
+		JdbcTemplate failing = new JdbcTemplate(this.jdbcTemplate.getDataSource()) {
+			@Override
+			public int update(String sql, Object... args) {
+				throw new DataAccessResourceFailureException("database down");
+			}
+		};
+		MeterRegistry registry = new SimpleMeterRegistry();
+		JdbcCacheInvalidationBus bus = new JdbcCacheInvalidationBus(failing, this.transactionManager, event -> {
+		}, registry, Duration.ofMinutes(10));
+
+		bus.publish(new CacheInvalidation("owners", 6));
+
+		assertThat(registry.counter("petclinic.cache.invalidation.publish.failures").count()).isOne();
+	}
+
+	@Test
+	void purgesOldRows() {
+		this.first.publish(CacheInvalidation.region("vets"));
+		new JdbcCacheInvalidationBus(this.jdbcTemplate, this.transactionManager, event -> {
+		}, new SimpleMeterRegistry(), Duration.ofSeconds(-1)).purge();
+
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cache_invalidations", Integer.class))
+			.isZero();
+	}
+
+	private JdbcCacheInvalidationBus bus(JdbcTemplate jdbcTemplate, List<Object> received) {
+		return new JdbcCacheInvalidationBus(jdbcTemplate, this.transactionManager, received::add,
+				new SimpleMeterRegistry(), Duration.ofMinutes(10));
+	}
+
+	// the next id above everything the polls have seen; rows inserted with explicit ids keep
+	// clear of the ids the identity column hands out to publish() in later tests
+	private long nextFreeId() {
+		long max = this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations",
+				Long.class);
+		insert(max + 1000, "marker", null);
+		this.second.poll();
+		this.receivedBySecond.clear();
+		return max + 1001;
+	}
+
+	private void insert(long id, String region, Integer key) {
+		this.jdbcTemplate.update(
+				"INSERT INTO cache_invalidations (id, node, region, cache_key, created_at) VALUES (?, 'other', ?, ?, CURRENT_TIMESTAMP)",
+				id, region, key);
+	}
+
+}
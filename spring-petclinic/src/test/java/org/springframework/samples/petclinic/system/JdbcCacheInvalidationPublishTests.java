@@ -0,0 +1,118 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Saves owners and vets with the JDBC bus enabled and checks that their invalidations,
+ * which are published after the commit of the saving transaction, end up in the
+ * {@code cache_invalidations} table. The pool hands out connections without auto-commit,
+ * so an insert outside of a transaction would be lost.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, webEnvironment = WebEnvironment.NONE,
+		properties = { "petclinic.cache.invalidation.bus=jdbc", "petclinic.cache.invalidation.poll-interval=1h",
+				"spring.datasource.hikari.auto-commit=false",
+				"spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true" })
+class JdbcCacheInvalidationPublishTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactions;
+
+	@BeforeEach
+	void setup() {
+		this.transactions = new TransactionTemplate(this.transactionManager);
+		this.transactions.executeWithoutResult(status -> this.jdbcTemplate.update("DELETE FROM cache_invalidations"));
+	}
+
+	// the database is shared with the other tests
+	@AfterEach
+	void restore() {
+		this.transactions.executeWithoutResult(status -> {
+			this.jdbcTemplate.update("UPDATE owners SET telephone = '6085555387' WHERE id = 7");
+			this.jdbcTemplate.update("UPDATE vets SET first_name = 'Sharon' WHERE id = 6");
+			this.jdbcTemplate.update("DELETE FROM owners WHERE last_name = 'Unpublished'");
+		});
+	}
+
+	@Test
+	void publishesOwnerInvalidationAfterCommit() {
+		Owner owner = this.owners.findById(7);
+		owner.setTelephone("6085550007");
+		this.owners.save(owner);
+
+		assertThat(count(OwnerRepository.OWNERS_CACHE, 7)).isOne();
+	}
+
+	@Test
+	void publishesNothingForNewOwner() {
+		// a new owner cannot be cached anywhere yet
+		Owner owner = new Owner();
+		owner.setFirstName("Nora");
+		owner.setLastName("Unpublished");
+		owner.setAddress("1 Main St.");
+		owner.setCity("Madison");
+		owner.setTelephone("6085550008");
+		this.owners.save(owner);
+
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cache_invalidations", Integer.class))
+			.isZero();
+	}
+
+	@Test
+	void publishesVetInvalidationAfterCommit() {
+		this.transactions.executeWithoutResult(status -> this.entityManager.find(Vet.class, 6).setFirstName("Shari"));
+
+		assertThat(count(VetRepository.VETS_CACHE, null)).isOne();
+	}
+
+	private int count(String region, Integer key) {
+		return this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM cache_invalidations WHERE region = ? AND cache_key IS NOT DISTINCT FROM ?",
+				Integer.class, region, key);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs replica routing together with the owner cache: the cache is filled from the
+ * primary, so a lagging replica never ends up in it. As in {@link ReplicaRoutingTests},
+ * owner 1 has a different last name on the replica.
+ */
+@SpringBootTest(classes = PetClinicApplication.class,
+		properties = { "spring.datasource.url=jdbc:h2:mem:cache-primary;DB_CLOSE_DELAY=-1",
+				"petclinic.datasource.replica.url=" + ReplicaOwnerCacheTests.REPLICA_URL,
+				"petclinic.datasource.replica.check-interval=1h", "petclinic.cache.owners.enabled=true" })
+@AutoConfigureMockMvc
+class ReplicaOwnerCacheTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:cache-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private ReplicaLagMonitor monitor;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@BeforeAll
+	static void populateReplica() {
+		DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+		new ResourceDatabasePopulator(new ClassPathResource("db/h2/schema.sql"), new ClassPathResource("db/h2/data.sql"))
+			.execute(replica);
+		new JdbcTemplate(replica).update("UPDATE owners SET last_name = 'Replica' WHERE id = 1");
+	}
+
+	@Test
+	void fillsOwnerCacheFromPrimary() throws Exception {
+		new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+				"MERGE INTO replication_heartbeat (id, beat) KEY (id) VALUES (1, ?)", Timestamp.from(Instant.now()));
+		this.monitor.check();
+		assertThat(this.monitor.isAvailable()).isTrue();
+		// other read-only transactions do read from the replica
+		assertThat(this.owners.findById(1).getLastName()).isEqualTo("Replica");
+
+		for (int i = 0; i < 2; i++) {
+			this.mockMvc.perform(get("/owners/{ownerId}", 1))
+				.andExpect(status().isOk())
+				.andExpect(model().attribute("owner", hasProperty("lastName", is("Franklin"))));
+		}
+		assertThat(this.cacheManager.getCache(OwnerRepository.OWNERS_CACHE).get(1)).isNotNull();
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes read-only transactions to a replica, using two separate in-memory H2 databases
+ * as primary and replica. The replica gets its own copy of the sample data, in which
+ * owner 1 has a different last name, so that every read shows where it came from.
+ */
+@SpringBootTest(classes = PetClinicApplication.class,
+		properties = { "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+				"petclinic.datasource.replica.url=" + ReplicaRoutingTests.REPLICA_URL,
+				"petclinic.datasource.replica.check-interval=1h", "petclinic.cache.owners.enabled=false" })
+@AutoConfigureObservability(tracing = false)
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private ReplicaLagMonitor monitor;
+
+	@Autowired
+	private HikariDataSource primaryDataSource;
+
+	@Autowired
+	private HikariDataSource replicaDataSource;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeAll
+	static void populateReplica() {
+		DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+		new ResourceDatabasePopulator(new ClassPathResource("db/h2/schema.sql"), new ClassPathResource("db/h2/data.sql"))
+			.execute(replica);
+		new JdbcTemplate(replica).update("UPDATE owners SET last_name = 'Replica' WHERE id = 1");
+	}
+
+	@Test
+	void readsFromReplicaWhileItIsCurrent() {
+		replicate(Duration.ZERO);
+		assertThat(this.monitor.isAvailable()).isTrue();
+
+		assertThat(this.owners.findById(1).getLastName()).isEqualTo("Replica");
+		assertThat(this.registry.get("petclinic.datasource.reads").tag("pool", "replica").counter().count())
+			.isPositive();
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaLags() {
+		replicate(Duration.ofMinutes(1));
+		assertThat(this.monitor.isAvailable()).isFalse();
+
+		assertThat(this.owners.findById(1).getLastName()).isEqualTo("Franklin");
+		assertThat(this.registry.get("petclinic.datasource.replica.available").gauge().value()).isZero();
+	}
+
+	@Test
+	void writesGoToPrimary() {
+		replicate(Duration.ZERO);
+		Owner owner = this.owners.findById(2);
+		owner.setCity("Primaryville");
+		this.owners.save(owner);
+
+		assertThat(cityOfOwner2(this.primaryDataSource)).isEqualTo("Primaryville");
+		assertThat(cityOfOwner2(this.replicaDataSource)).isNotEqualTo("Primaryville");
+	}
+
+	@Test
+	void readsOwnPagesAfterWriteFromPrimary() throws Exception {
+		replicate(Duration.ZERO);
+		this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", 3).param("firstName", "Eduardo")
+				.param("lastName", "Written")
+				.param("address", "2693 Commerce St.")
+				.param("city", "McFarland")
+				.param("telephone", "6085558763"))
+			.andExpect(status().is3xxRedirection());
+
+		// the replica has not seen the change, the page after the redirect must show it anyway
+		this.mockMvc.perform(get("/owners/{ownerId}", 3))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("owner", hasProperty("lastName", is("Written"))));
+	}
+
+	@Test
+	void publishesMetricsPerPool() {
+		// the pools start with their first connection
+		replicate(Duration.ZERO);
+		assertThat(this.registry.get("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+		assertThat(this.registry.get("hikaricp.connections").tag("pool", "replica").gauge()).isNotNull();
+		assertThat(this.registry.get("petclinic.datasource.replica.lag").gauge()).isNotNull();
+	}
+
+	// Simulates replication: the replica sees a heartbeat that is the given lag old
+	private void replicate(Duration lag) {
+		new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+				"MERGE INTO replication_heartbeat (id, beat) KEY (id) VALUES (1, ?)",
+				Timestamp.from(Instant.now().minus(lag)));
+		this.monitor.check();
+	}
+
+	private static String cityOfOwner2(DataSource dataSource) {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT city FROM owners WHERE id = 2", String.class);
+	}
+
+}
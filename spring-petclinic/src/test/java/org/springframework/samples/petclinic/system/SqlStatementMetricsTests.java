@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Checks that the SQL statements, JDBC time and rows of a request are published as
+ * metrics tagged with the handling controller method.
+ */
+@SpringBootTest(classes = PetClinicApplication.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class SqlStatementMetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	@Qualifier("applicationTaskExecutor")
+	private AsyncTaskExecutor taskExecutor;
+
+	@Test
+	void recordsStatementsAndRowsPerControllerMethod() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 6)).andExpect(status().isOk());
+
+		DistributionSummary statements = this.registry.get("petclinic.sql.statements")
+			.tags("controller", "OwnerController", "method", "showOwner")
+			.summary();
+		assertThat(statements.count()).isGreaterThanOrEqualTo(1);
+		assertThat(statements.totalAmount()).isGreaterThan(0);
+		// owner 6 has two pets with four visits between them
+		DistributionSummary rows = this.registry.get("petclinic.sql.rows")
+			.tags("controller", "OwnerController", "method", "showOwner")
+			.summary();
+		assertThat(rows.totalAmount()).isGreaterThanOrEqualTo(2);
+		Timer time = this.registry.get("petclinic.sql.time")
+			.tags("controller", "OwnerController", "method", "showOwner")
+			.timer();
+		assertThat(time.count()).isEqualTo(statements.count());
+	}
+
+	@Test
+	void recordsConnectionHoldTimePerControllerMethod() throws Exception {
+		this.mockMvc.perform(get("/vets.html")).andExpect(status().isOk());
+
+		Timer connectionTime = this.registry.get("petclinic.sql.connection-time")
+			.tags("controller", "VetController", "method", "showVetList")
+			.timer();
+		assertThat(connectionTime.count()).isGreaterThanOrEqualTo(1);
+		// without open session in view every connection is back in the pool once the controller returns
+		assertThat(this.dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections())
+			.isZero();
+	}
+
+	@Test
+	void recordsStatementsOfAsynchronousRequests() throws Exception {
+		MvcResult started = this.mockMvc.perform(get("/api/owners").param("lastName", "Davis"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		this.mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+		// the queries run on the API executor, but count towards the request
+		DistributionSummary statements = this.registry.get("petclinic.sql.statements")
+			.tags("controller", "OwnerApiController", "method", "findOwners")
+			.summary();
+		assertThat(statements.count()).isEqualTo(1);
+		assertThat(statements.totalAmount()).isGreaterThan(0);
+	}
+
+	@Test
+	void recordsStatementsOfStreamingExport() throws Exception {
+		MvcResult started = this.mockMvc.perform(get("/owners/export").accept(MediaType.APPLICATION_JSON))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		this.mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+		// the export streams on the application task executor, its queries count towards
+		// the request
+		DistributionSummary statements = this.registry.get("petclinic.sql.statements")
+			.tags("controller", "OwnerExportController", "method", "exportJson")
+			.summary();
+		assertThat(statements.count()).isEqualTo(1);
+		assertThat(statements.totalAmount()).isGreaterThan(0);
+		DistributionSummary rows = this.registry.get("petclinic.sql.rows")
+			.tags("controller", "OwnerExportController", "method", "exportJson")
+			.summary();
+		assertThat(rows.totalAmount()).isGreaterThanOrEqualTo(10);
+		// neither the request thread nor the executor threads keep counting afterwards
+		assertThat(SqlStatementStats.active()).isFalse();
+		assertThat(this.taskExecutor.submit(SqlStatementStats::active).get()).isFalse();
+	}
+
+	@Test
+	void keepsPoolReachableThroughUnwrap() throws Exception {
+		assertThat(this.dataSource).isInstanceOf(SqlStatementStatsDataSource.class);
+		assertThat(this.dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+		assertThat(this.dataSource.unwrap(HikariDataSource.class)).isNotNull();
+	}
+
+}
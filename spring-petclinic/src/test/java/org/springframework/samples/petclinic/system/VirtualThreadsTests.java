@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runs the application with the "virtual-threads" profile, in which Tomcat serves requests
+ * and their JPA calls on virtual threads. Requires Java 21, e.g.
+ * {@code ./mvnw test -P java21}.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("virtual-threads")
+@Import(VirtualThreadsTests.HandlerThread.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsTests {
+
+	@Autowired
+	private ServletWebServerApplicationContext context;
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Test
+	void requestsRunOnVirtualThreads() {
+		TomcatWebServer server = (TomcatWebServer) this.context.getWebServer();
+		assertThat(server.getTomcat().getConnector().getProtocolHandler().getExecutor())
+			.isInstanceOf(VirtualThreadExecutor.class);
+	}
+
+	@Test
+	void ownerSearchRunsOnVirtualThreads() {
+		HandlerThread.VIRTUAL.set(null);
+		assertThat(this.rest.getForEntity("/owners?lastName=Davis", String.class).getStatusCode())
+			.isEqualTo(HttpStatus.OK);
+		assertThat(HandlerThread.VIRTUAL.get()).isTrue();
+	}
+
+	/**
+	 * Records whether the thread that runs the owner search handler is virtual. Uses
+	 * reflection because {@code Thread.isVirtual()} does not exist in Java 17, which the
+	 * test sources are compiled with.
+	 */
+	@TestConfiguration(proxyBeanMethods = false)
+	static class HandlerThread implements WebMvcConfigurer {
+
+		static final AtomicReference<Boolean> VIRTUAL = new AtomicReference<>();
+
+		private static final Method IS_VIRTUAL = ReflectionUtils.findMethod(Thread.class, "isVirtual");
+
+		@Override
+		public void addInterceptors(InterceptorRegistry registry) {
+			registry.addInterceptor(new HandlerInterceptor() {
+
+				@Override
+				public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+					VIRTUAL.set((Boolean) ReflectionUtils.invokeMethod(IS_VIRTUAL, Thread.currentThread()));
+					return true;
+				}
+
+			}).addPathPatterns("/owners");
+		}
+
+	}
+
+}
@@ -23,8 +23,12 @@ import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
@@ -89,6 +93,20 @@ class VetControllerTests {
 
 	}
 
+	@Test
+	void testShowVetListHtmlByKeyset() throws Exception {
+		given(this.vets.findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+			.willReturn(Window.from(Lists.newArrayList(james(), helen()), ScrollPosition::offset, false));
+		given(this.vets.countUpTo(1001)).willReturn(2L);
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/vets.html").param("cursor", ""))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("keyset", true))
+			.andExpect(model().attribute("totalItems", 2L))
+			.andExpect(model().attributeExists("listVets"))
+			.andExpect(view().name("vets/vetList"));
+	}
+
 	@Test
 	void testShowResourcesVetList() throws Exception {
 		ResultActions actions = mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
@@ -15,6 +15,8 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.util.SerializationUtils;
 
@@ -38,4 +40,41 @@ class VetTests {
 		assertThat(other.getId()).isEqualTo(vet.getId());
 	}
 
+	@Test
+	void keepsSpecialtiesSortedByName() {
+		Vet vet = new Vet();
+		vet.addSpecialty(specialty("surgery"));
+		vet.addSpecialty(specialty("Dentistry"));
+		vet.addSpecialty(specialty("radiology"));
+
+		List<Specialty> specialties = vet.getSpecialties();
+		assertThat(specialties).extracting(Specialty::getName).containsExactly("Dentistry", "radiology", "surgery");
+		// the sorted list is built once and not copied on every call
+		assertThat(vet.getSpecialties()).isSameAs(specialties);
+
+		vet.addSpecialty(specialty("anesthesia"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName)
+			.containsExactly("anesthesia", "Dentistry", "radiology", "surgery");
+	}
+
+	@Test
+	void resortsSpecialtiesAfterSwapWithSameSize() {
+		Vet vet = new Vet();
+		Specialty surgery = specialty("surgery");
+		vet.addSpecialty(surgery);
+		vet.addSpecialty(specialty("radiology"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("radiology", "surgery");
+
+		vet.getSpecialtiesInternal().remove(surgery);
+		vet.getSpecialtiesInternal().add(specialty("anesthesia"));
+
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("anesthesia", "radiology");
+	}
+
+	private static Specialty specialty(String name) {
+		Specialty specialty = new Specialty();
+		specialty.setName(name);
+		return specialty;
+	}
+
 }